@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// DataLoader on a generated file in the dataset layout: feature columns followed by the label
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataLoaderBenchmark {
+    @Param({"10000", "100000"})
+    int samples;
+
+    @Param({"64", "256"})
+    int features;
+
+    private File csvFile;
+    private File binaryFile;
+
+    @Setup
+    public void setUp() throws Throwable {
+        SyntheticData data = SyntheticData.generate(samples, features, 3);
+        csvFile = File.createTempFile("loader-benchmark", ".csv");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(csvFile))) {
+            for (int i = 0; i < samples; i++) {
+                int[] row = data.features[i];
+                for (int value : row) {
+                    writer.write(Integer.toString(value));
+                    writer.write(',');
+                }
+                writer.write(Integer.toString(data.labels[i]));
+                writer.newLine();
+            }
+        }
+        binaryFile = File.createTempFile("loader-benchmark", ".bin");
+        ProjectClasses.CONVERT_TO_BINARY.invokeExact(csvFile.getPath(), binaryFile.getPath());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        csvFile.delete();
+        binaryFile.delete();
+    }
+
+    @Benchmark
+    public int[][] loadCsv() throws Throwable {
+        return (int[][]) ProjectClasses.LOAD_DATA.invokeExact(csvFile.getPath());
+    }
+
+    @Benchmark
+    public int[][] loadBinary() throws Throwable {
+        return (int[][]) ProjectClasses.LOAD_BINARY_DATA.invokeExact(binaryFile.getPath());
+    }
+}
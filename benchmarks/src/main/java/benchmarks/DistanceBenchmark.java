@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// DistanceCalculator.euclideanDistance for one pair of vectors
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+    @Param({"64", "256", "1024"})
+    int features;
+
+    private int[] a;
+    private int[] b;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = SyntheticData.generate(2, features, 7);
+        a = data.features[0];
+        b = data.features[1];
+    }
+
+    @Benchmark
+    public double euclideanDistance() throws Throwable {
+        return (double) ProjectClasses.EUCLIDEAN_DISTANCE.invokeExact(a, b);
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Single-sample predict for every Classifier implementation, trained once per trial
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredictBenchmark {
+    private static final int QUERY_COUNT = 256;
+
+    @Param({"NearestNeighbor", "NearestNeighborPacked", "WeightedKNN", "MLP", "MulticlassSVM",
+            "DecisionTree", "RandomForest", "GradientBoostedTrees", "Voting", "Hybrid"})
+    String classifier;
+
+    // Training-set size
+    @Param({"1000", "10000"})
+    int samples;
+
+    @Param({"64", "256"})
+    int features;
+
+    private Object model;
+    private int[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        SyntheticData training = SyntheticData.generate(samples, features, 1);
+        queries = SyntheticData.generate(QUERY_COUNT, features, 2).features;
+        model = ProjectClasses.newClassifier(classifier, features, SyntheticData.NUM_CLASSES);
+        ProjectClasses.train(model, training.features, training.labels);
+    }
+
+    // Cycles through a fixed set of queries so branch-heavy models do not see one input only
+    @Benchmark
+    public int predict() throws Throwable {
+        int[] query = queries[next];
+        next = (next + 1) % QUERY_COUNT;
+        return (int) ProjectClasses.PREDICT.invokeExact(model, query);
+    }
+}
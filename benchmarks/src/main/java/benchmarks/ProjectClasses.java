@@ -0,0 +1,118 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.util.Random;
+
+final class ProjectClasses {
+    // The project classes live in the unnamed package, which packaged code cannot import, and JMH
+    // only generates benchmarks for packaged classes. So the project API is reached through method
+    // handles resolved once by name. Held in static finals they are constants to the JIT, which
+    // inlines straight through them; the benchmarks measure the project code, not reflection.
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    static final Class<?> CLASSIFIER = type("Classifier");
+
+    static final MethodHandle EUCLIDEAN_DISTANCE = findStatic("DistanceCalculator", "euclideanDistance",
+        MethodType.methodType(double.class, int[].class, int[].class));
+    static final MethodHandle LOAD_DATA = findStatic("DataLoader", "loadData",
+        MethodType.methodType(int[][].class, String.class));
+    static final MethodHandle LOAD_BINARY_DATA = findStatic("DataLoader", "loadBinaryData",
+        MethodType.methodType(int[][].class, String.class));
+    static final MethodHandle CONVERT_TO_BINARY = findStatic("BinaryDataset", "convertFromCsv",
+        MethodType.methodType(void.class, String.class, String.class));
+
+    // Classifier.train(int[][], int[]) and Classifier.predict(int[]) with the receiver typed as Object
+    static final MethodHandle TRAIN = findVirtual(CLASSIFIER, "train",
+        MethodType.methodType(void.class, int[][].class, int[].class))
+        .asType(MethodType.methodType(void.class, Object.class, int[][].class, int[].class));
+    static final MethodHandle PREDICT = findVirtual(CLASSIFIER, "predict",
+        MethodType.methodType(int.class, int[].class))
+        .asType(MethodType.methodType(int.class, Object.class, int[].class));
+
+    private ProjectClasses() {
+    }
+
+    // Builds a classifier by benchmark name. The settings follow Main, except that the iterative
+    // learners run fewer epochs/trees so one training call stays in the range JMH can sample.
+    static Object newClassifier(String name, int numFeatures, int numClasses) {
+        switch (name) {
+            case "NearestNeighbor":
+                return construct("NearestNeighborClassifier", new Class<?>[0]);
+            case "NearestNeighborPacked":
+                return construct("NearestNeighborClassifier", new Class<?>[]{boolean.class}, true);
+            case "WeightedKNN":
+                return construct("WeightedKNearestNeighborsClassifier", new Class<?>[]{int.class, int.class}, 3, numClasses);
+            case "MLP":
+                return construct("MLPClassifier", new Class<?>[]{int.class, int.class, int.class, double.class, int.class},
+                    numFeatures, 100, numClasses, 0.002, 5);
+            case "MulticlassSVM":
+                return construct("MulticlassSVMClassifier", new Class<?>[]{double.class, double.class, int.class, int.class, int.class},
+                    0.001, 0.01, 20, numFeatures, numClasses);
+            case "DecisionTree":
+                return construct("DecisionTreeClassifier", new Class<?>[]{int.class, int.class, int.class, int.class, int.class, Random.class},
+                    numClasses, 10, 5, 1, numFeatures, new Random(42));
+            case "RandomForest":
+                return construct("RandomForestClassifier", new Class<?>[]{int.class, int.class, int.class, int.class, int.class, double.class, double.class},
+                    10, numClasses, 5, 2, 1, 0.5, 1.0);
+            case "GradientBoostedTrees":
+                return construct("MultiClassGradientBoostedTreesClassifier", new Class<?>[]{int.class, int.class, double.class, int.class, int.class, int.class, double.class},
+                    numClasses, 10, 0.1, 3, 5, 10, 1.0);
+            case "Voting": {
+                Object members = Array.newInstance(CLASSIFIER, 3);
+                Array.set(members, 0, newClassifier("NearestNeighbor", numFeatures, numClasses));
+                Array.set(members, 1, newClassifier("MLP", numFeatures, numClasses));
+                Array.set(members, 2, newClassifier("WeightedKNN", numFeatures, numClasses));
+                return construct("SimpleVotingClassifier", new Class<?>[]{members.getClass()}, members);
+            }
+            case "Hybrid":
+                return construct("HybridClassifier", new Class<?>[]{type("NearestNeighborClassifier"), CLASSIFIER, double.class},
+                    newClassifier("NearestNeighbor", numFeatures, numClasses), newClassifier("MLP", numFeatures, numClasses), 20.0);
+            default:
+                throw new IllegalArgumentException("Unknown classifier: " + name);
+        }
+    }
+
+    // Voting and Hybrid train their members through their own train method
+    static void train(Object classifier, int[][] features, int[] labels) throws Throwable {
+        TRAIN.invokeExact(classifier, features, labels);
+    }
+
+    // Some classifiers are package-private classes with public constructors
+    private static Object construct(String className, Class<?>[] parameterTypes, Object... args) {
+        try {
+            Constructor<?> constructor = type(className).getConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return constructor.newInstance(args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot construct " + className, e);
+        }
+    }
+
+    private static Class<?> type(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Project class not on the classpath: " + className, e);
+        }
+    }
+
+    private static MethodHandle findStatic(String className, String methodName, MethodType methodType) {
+        try {
+            return LOOKUP.findStatic(type(className), methodName, methodType);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot resolve " + className + "." + methodName, e);
+        }
+    }
+
+    private static MethodHandle findVirtual(Class<?> owner, String methodName, MethodType methodType) {
+        try {
+            return LOOKUP.findVirtual(owner, methodName, methodType);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot resolve " + owner.getName() + "." + methodName, e);
+        }
+    }
+}
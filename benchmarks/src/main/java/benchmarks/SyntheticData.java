@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.Random;
+
+final class SyntheticData {
+    // Digit-like data: every class has a random prototype with values in 0..16 (the range of the
+    // 8x8 digit pixels), and samples are that prototype plus bounded noise. Fixed seeds keep the
+    // inputs identical between runs so results can be compared against earlier baselines.
+    static final int NUM_CLASSES = 10;
+    static final int MAX_VALUE = 16;
+    private static final int NOISE = 4;
+
+    final int[][] features;
+    final int[] labels;
+
+    private SyntheticData(int[][] features, int[] labels) {
+        this.features = features;
+        this.labels = labels;
+    }
+
+    static SyntheticData generate(int rows, int columns, long seed) {
+        Random prototypeRandom = new Random(1234);
+        int[][] prototypes = new int[NUM_CLASSES][columns];
+        for (int[] prototype : prototypes) {
+            for (int j = 0; j < columns; j++) {
+                prototype[j] = prototypeRandom.nextInt(MAX_VALUE + 1);
+            }
+        }
+
+        Random random = new Random(seed);
+        int[][] features = new int[rows][columns];
+        int[] labels = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            int label = random.nextInt(NUM_CLASSES);
+            labels[i] = label;
+            for (int j = 0; j < columns; j++) {
+                int value = prototypes[label][j] + random.nextInt(2 * NOISE + 1) - NOISE;
+                features[i][j] = Math.max(0, Math.min(MAX_VALUE, value));
+            }
+        }
+        return new SyntheticData(features, labels);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Full training run of the tree, SVM and MLP learners on a fresh model each invocation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TrainBenchmark {
+    @Param({"DecisionTree", "RandomForest", "GradientBoostedTrees", "MulticlassSVM", "MLP"})
+    String classifier;
+
+    // Training-set size
+    @Param({"1000", "10000"})
+    int samples;
+
+    @Param({"64", "256"})
+    int features;
+
+    private SyntheticData training;
+
+    @Setup
+    public void setUp() {
+        training = SyntheticData.generate(samples, features, 1);
+    }
+
+    @Benchmark
+    public Object train() throws Throwable {
+        Object model = ProjectClasses.newClassifier(classifier, features, SyntheticData.NUM_CLASSES);
+        ProjectClasses.train(model, training.features, training.labels);
+        return model;
+    }
+}
@@ -23,13 +23,24 @@ if %errorlevel% neq 0 (
 echo Compilation successful!
 echo.
 
+REM SIMD distance kernels need the incubating Vector API (JDK 16+); without it the scalar ones are used
+set JAVA_OPTS=
+javac --add-modules jdk.incubator.vector -cp out -d out src-vector\*.java 2>nul
+if %errorlevel% equ 0 (
+    echo Vector API kernels compiled
+    set JAVA_OPTS=--add-modules jdk.incubator.vector
+) else (
+    echo Vector API not available, using scalar kernels
+)
+echo.
+
 REM Run the main experiments
 echo Running experiments...
 echo This may take a few minutes depending on your system.
 echo.
 
 REM Run Main class with classpath
-java -cp out Main
+java %JAVA_OPTS% -cp out Main
 
 REM Check if execution was successful
 if %errorlevel% equ 0 (
@@ -24,6 +24,15 @@ fi
 
 echo "Compilation successful!"
 echo ""
+# SIMD distance kernels need the incubating Vector API (JDK 16+); without it the scalar ones are used
+JAVA_OPTS=""
+if javac --add-modules jdk.incubator.vector -cp out -d out src-vector/*.java 2>/dev/null; then
+    echo "Vector API kernels compiled"
+    JAVA_OPTS="--add-modules jdk.incubator.vector"
+else
+    echo "Vector API not available, using scalar kernels"
+fi
+echo ""
 
 # Run the main experiments
 echo "Running experiments..."
@@ -31,7 +40,7 @@ echo "This may take a few minutes depending on your system."
 echo ""
 
 # Run Main class with classpath
-java -cp out Main
+java $JAVA_OPTS -cp out Main
 
 # Check if execution was successful
 if [ $? -eq 0 ]; then
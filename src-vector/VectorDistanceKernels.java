@@ -0,0 +1,248 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorDistanceKernels implements DistanceKernels {
+    // DistanceKernels on the incubating Vector API. This source root is compiled separately with
+    // --add-modules jdk.incubator.vector (JDK 16+); DistanceCalculator loads the class by name and
+    // keeps the scalar kernels when it is missing.
+    // Integer kernels work in int lanes, which is exact while every value is within +-MAX_LANE_VALUE:
+    // a squared difference or product then stays below 2^22 and FLUSH_VECTORS of them summed per lane
+    // below 2^27, so lane sums and their reduction cannot overflow. Vectors are checked as they are
+    // loaded, and a call that meets a larger value is redone by the scalar kernel.
+    // Int lanes use the platform's preferred shape, the widest one it intrinsifies; a wider species
+    // would run the Vector API's per-lane Java fallback. Packed bytes are loaded one int vector's worth
+    // at a time, in a 64-bit load when that is more than the int lanes need (128-bit int vectors).
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES =
+        VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, INTS.length() * Byte.SIZE)));
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS_PER_DOUBLES =
+        VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    private static final int MAX_LANE_VALUE = 1023; // 2^10 - 1, so |a| | |b| > MAX_LANE_VALUE iff either is larger
+    private static final int FLUSH_VECTORS = 16;
+
+    private final ScalarDistanceKernels scalar = new ScalarDistanceKernels();
+
+    @Override
+    public String getName() {
+        return "Vector API, " + INTS.length() + " int lanes";
+    }
+
+    // True if some lane of a or b is outside +-MAX_LANE_VALUE (abs(MIN_VALUE) is negative, hence unsigned)
+    private static boolean tooLarge(IntVector a, IntVector b) {
+        return a.abs().or(b.abs()).compare(VectorOperators.UNSIGNED_GT, MAX_LANE_VALUE).anyTrue();
+    }
+
+    private static boolean tooLarge(IntVector a) {
+        return a.abs().compare(VectorOperators.UNSIGNED_GT, MAX_LANE_VALUE).anyTrue();
+    }
+
+    // Loop bound for the kernels that load bytes: every BYTES load from packedOffset + i must end
+    // within length, which cuts the int loop short when BYTES has more lanes than INTS
+    private static int bytesLoopBound(int length) {
+        return Math.min(INTS.loopBound(length), Math.max(0, length - BYTES.length() + 1));
+    }
+
+    // Unsigned bytes packed[offset, offset + INTS.length()) widened to ints
+    private static IntVector loadBytes(byte[] packed, int offset) {
+        return ((IntVector) ByteVector.fromArray(BYTES, packed, offset).convertShape(VectorOperators.B2I, INTS, 0)).and(0xFF);
+    }
+
+    @Override
+    public long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length) {
+        int upper = INTS.loopBound(length);
+        long sum = 0;
+        IntVector lanes = IntVector.zero(INTS);
+        int pending = 0;
+        int i = 0;
+        for (; i < upper; i += INTS.length()) {
+            IntVector a = IntVector.fromArray(INTS, data1, offset1 + i);
+            IntVector b = IntVector.fromArray(INTS, data2, offset2 + i);
+            if (tooLarge(a, b)) {
+                return scalar.squaredDistance(data1, offset1, data2, offset2, length);
+            }
+            IntVector diff = a.sub(b);
+            lanes = lanes.add(diff.mul(diff));
+            if (++pending == FLUSH_VECTORS) {
+                sum += lanes.reduceLanes(VectorOperators.ADD);
+                lanes = IntVector.zero(INTS);
+                pending = 0;
+            }
+        }
+        sum += lanes.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            long diff = (long) data1[offset1 + i] - data2[offset2 + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length, long bound) {
+        int upper = INTS.loopBound(length);
+        long sum = 0;
+        int i = 0;
+        for (; i < upper; i += INTS.length()) {
+            IntVector a = IntVector.fromArray(INTS, data1, offset1 + i);
+            IntVector b = IntVector.fromArray(INTS, data2, offset2 + i);
+            if (tooLarge(a, b)) {
+                return scalar.squaredDistance(data1, offset1, data2, offset2, length, bound);
+            }
+            IntVector diff = a.sub(b);
+            sum += diff.mul(diff).reduceLanes(VectorOperators.ADD);
+            if (sum > bound) {
+                return sum;
+            }
+        }
+        for (; i < length; i++) {
+            long diff = (long) data1[offset1 + i] - data2[offset2 + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length) {
+        int upper = bytesLoopBound(length);
+        long sum = 0;
+        IntVector lanes = IntVector.zero(INTS);
+        int pending = 0;
+        int i = 0;
+        for (; i < upper; i += INTS.length()) {
+            IntVector a = IntVector.fromArray(INTS, query, queryOffset + i);
+            if (tooLarge(a)) {
+                return scalar.squaredDistanceBytes(query, queryOffset, packed, packedOffset, length);
+            }
+            IntVector diff = a.sub(loadBytes(packed, packedOffset + i));
+            lanes = lanes.add(diff.mul(diff));
+            if (++pending == FLUSH_VECTORS) {
+                sum += lanes.reduceLanes(VectorOperators.ADD);
+                lanes = IntVector.zero(INTS);
+                pending = 0;
+            }
+        }
+        sum += lanes.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            long diff = (long) query[queryOffset + i] - (packed[packedOffset + i] & 0xFF);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length, long bound) {
+        int upper = bytesLoopBound(length);
+        long sum = 0;
+        int i = 0;
+        for (; i < upper; i += INTS.length()) {
+            IntVector a = IntVector.fromArray(INTS, query, queryOffset + i);
+            if (tooLarge(a)) {
+                return scalar.squaredDistanceBytes(query, queryOffset, packed, packedOffset, length, bound);
+            }
+            IntVector diff = a.sub(loadBytes(packed, packedOffset + i));
+            sum += diff.mul(diff).reduceLanes(VectorOperators.ADD);
+            if (sum > bound) {
+                return sum;
+            }
+        }
+        for (; i < length; i++) {
+            long diff = (long) query[queryOffset + i] - (packed[packedOffset + i] & 0xFF);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long dot(int[] data1, int offset1, int[] data2, int offset2, int length) {
+        int upper = INTS.loopBound(length);
+        long sum = 0;
+        IntVector lanes = IntVector.zero(INTS);
+        int pending = 0;
+        int i = 0;
+        for (; i < upper; i += INTS.length()) {
+            IntVector a = IntVector.fromArray(INTS, data1, offset1 + i);
+            IntVector b = IntVector.fromArray(INTS, data2, offset2 + i);
+            if (tooLarge(a, b)) {
+                return scalar.dot(data1, offset1, data2, offset2, length);
+            }
+            lanes = lanes.add(a.mul(b));
+            if (++pending == FLUSH_VECTORS) {
+                sum += lanes.reduceLanes(VectorOperators.ADD);
+                lanes = IntVector.zero(INTS);
+                pending = 0;
+            }
+        }
+        sum += lanes.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += (long) data1[offset1 + i] * data2[offset2 + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long dotBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length) {
+        int upper = bytesLoopBound(length);
+        long sum = 0;
+        IntVector lanes = IntVector.zero(INTS);
+        int pending = 0;
+        int i = 0;
+        for (; i < upper; i += INTS.length()) {
+            IntVector a = IntVector.fromArray(INTS, query, queryOffset + i);
+            if (tooLarge(a)) {
+                return scalar.dotBytes(query, queryOffset, packed, packedOffset, length);
+            }
+            lanes = lanes.add(a.mul(loadBytes(packed, packedOffset + i)));
+            if (++pending == FLUSH_VECTORS) {
+                sum += lanes.reduceLanes(VectorOperators.ADD);
+                lanes = IntVector.zero(INTS);
+                pending = 0;
+            }
+        }
+        sum += lanes.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += (long) query[queryOffset + i] * (packed[packedOffset + i] & 0xFF);
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] weights, int weightOffset, int[] features, int featureOffset, int length) {
+        int upper = DOUBLES.loopBound(length);
+        DoubleVector lanes = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector w = DoubleVector.fromArray(DOUBLES, weights, weightOffset + i);
+            DoubleVector x = (DoubleVector) IntVector.fromArray(INTS_PER_DOUBLES, features, featureOffset + i)
+                .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            lanes = w.fma(x, lanes);
+        }
+        double sum = lanes.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += weights[weightOffset + i] * features[featureOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(int[] features, int featureOffset, double[] point, int pointOffset, int length) {
+        int upper = DOUBLES.loopBound(length);
+        DoubleVector lanes = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector x = (DoubleVector) IntVector.fromArray(INTS_PER_DOUBLES, features, featureOffset + i)
+                .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            DoubleVector diff = x.sub(DoubleVector.fromArray(DOUBLES, point, pointOffset + i));
+            lanes = diff.fma(diff, lanes);
+        }
+        double sum = lanes.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double diff = features[featureOffset + i] - point[pointOffset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,136 @@
+public class BatchDistances {
+    // Squared Euclidean distances between a batch of query rows and a reference store, computed tile by
+    // tile as ||a||^2 + ||b||^2 - 2 a.b. Reference norms are computed once per store and query norms
+    // once per batch, so a tile reduces to dot products, and a reference tile stays in cache while
+    // every query of the query tile runs over it. Features are integers and the expansion is evaluated in exact integer
+    // arithmetic, so the distances equal those of DistanceCalculator.squaredDistance.
+    public static final int QUERY_TILE = 32;
+    public static final int REFERENCE_TILE = 256;
+
+    private final FeatureStore references;
+    private final long[] referenceNorms;
+    private final int maxAbsReference; // largest |value| in the store, to pick the int or long kernel
+
+    public BatchDistances(FeatureStore references) {
+        this.references = references;
+        int n = references.getRowCount();
+        int d = references.getColumnCount();
+        this.referenceNorms = new long[n];
+        int maxAbs = 0;
+        int[] row = new int[d];
+        for (int i = 0; i < n; i++) {
+            references.copyRow(i, row);
+            long norm = 0;
+            for (int j = 0; j < d; j++) {
+                norm += (long) row[j] * row[j];
+                maxAbs = Math.max(maxAbs, Math.abs(row[j]));
+            }
+            referenceNorms[i] = norm;
+        }
+        this.maxAbsReference = maxAbs;
+    }
+
+    public FeatureStore getReferences() {
+        return references;
+    }
+
+    public long[] getReferenceNorms() {
+        return referenceNorms;
+    }
+
+    // Working state for one batch of queries; not shared between threads
+    public Block newBlock(DenseMatrix queries) {
+        return new Block(queries);
+    }
+
+    public final class Block {
+        private final DenseMatrix queries;
+        private final long[] queryNorms;
+        private final boolean intProducts; // every dot product fits in an int
+        private final long[] distances = new long[QUERY_TILE * REFERENCE_TILE];
+        private final int[] transposed; // reference tile, column-major: value (row r, column j) at j * REFERENCE_TILE + r
+        private final int[] dots = new int[REFERENCE_TILE];
+        private final long[] longDots = new long[REFERENCE_TILE];
+        private final int[] row;
+        private int queryStart;
+        private int referenceStart;
+
+        private Block(DenseMatrix queries) {
+            this.queries = queries;
+            int d = queries.getColumnCount();
+            int[] data = queries.getData();
+            this.queryNorms = new long[queries.getRowCount()];
+            int maxAbs = 0;
+            for (int q = 0; q < queryNorms.length; q++) {
+                int offset = queries.rowOffset(q);
+                long norm = 0;
+                for (int j = 0; j < d; j++) {
+                    int value = data[offset + j];
+                    norm += (long) value * value;
+                    maxAbs = Math.max(maxAbs, Math.abs(value));
+                }
+                queryNorms[q] = norm;
+            }
+            this.intProducts = (long) maxAbs * maxAbsReference * d <= Integer.MAX_VALUE;
+            this.transposed = new int[REFERENCE_TILE * d];
+            this.row = new int[d];
+        }
+
+        // Computes the distances between queries [queryStart, queryEnd) and reference rows
+        // [referenceStart, referenceEnd); the tiles must not exceed QUERY_TILE and REFERENCE_TILE rows.
+        // The reference tile is transposed once, so the inner loop adds query[j] times a contiguous
+        // column of the tile to a row of dot products, which the JIT compiles to vector instructions;
+        // zero query values (common in sparse images) skip their column entirely.
+        public void compute(int queryStart, int queryEnd, int referenceStart, int referenceEnd) {
+            this.queryStart = queryStart;
+            this.referenceStart = referenceStart;
+            int d = queries.getColumnCount();
+            int width = referenceEnd - referenceStart;
+            for (int r = 0; r < width; r++) {
+                references.copyRow(referenceStart + r, row);
+                for (int j = 0; j < d; j++) {
+                    transposed[j * REFERENCE_TILE + r] = row[j];
+                }
+            }
+
+            int[] queryData = queries.getData();
+            for (int q = queryStart; q < queryEnd; q++) {
+                int queryOffset = queries.rowOffset(q);
+                int out = (q - queryStart) * REFERENCE_TILE;
+                long queryNorm = queryNorms[q];
+                if (intProducts) {
+                    java.util.Arrays.fill(dots, 0, width, 0);
+                    for (int j = 0; j < d; j++) {
+                        int a = queryData[queryOffset + j];
+                        if (a == 0) continue;
+                        int column = j * REFERENCE_TILE;
+                        for (int r = 0; r < width; r++) {
+                            dots[r] += a * transposed[column + r];
+                        }
+                    }
+                    for (int r = 0; r < width; r++) {
+                        distances[out + r] = queryNorm + referenceNorms[referenceStart + r] - 2L * dots[r];
+                    }
+                } else {
+                    java.util.Arrays.fill(longDots, 0, width, 0);
+                    for (int j = 0; j < d; j++) {
+                        long a = queryData[queryOffset + j];
+                        if (a == 0) continue;
+                        int column = j * REFERENCE_TILE;
+                        for (int r = 0; r < width; r++) {
+                            longDots[r] += a * transposed[column + r];
+                        }
+                    }
+                    for (int r = 0; r < width; r++) {
+                        distances[out + r] = queryNorm + referenceNorms[referenceStart + r] - 2 * longDots[r];
+                    }
+                }
+            }
+        }
+
+        // Squared distance between query q and reference row r of the last computed tile
+        public long get(int q, int r) {
+            return distances[(q - queryStart) * REFERENCE_TILE + (r - referenceStart)];
+        }
+    }
+}
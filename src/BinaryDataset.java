@@ -0,0 +1,172 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class BinaryDataset {
+    // A compact binary dataset format: a 12-byte header (magic, rows, columns)
+    // followed by rows * columns unsigned bytes in row-major order.
+    // The file is memory-mapped on open, so no parsing happens at load time.
+    public static final int MAGIC = 0x44475431; // "DGT1"
+    public static final int HEADER_SIZE = 12;
+    public static final int MAX_VALUE = 255;
+
+    private final MappedByteBuffer[] segments; // each segment holds a whole number of rows
+    private final int rowsPerSegment;
+    private final int rowCount;
+    private final int columnCount;
+
+    private BinaryDataset(MappedByteBuffer[] segments, int rowsPerSegment, int rowCount, int columnCount) {
+        this.segments = segments;
+        this.rowsPerSegment = rowsPerSegment;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+    }
+
+    // Maps a binary dataset file into memory.
+    // Files larger than 2GB are split into several mappings on row boundaries.
+    public static BinaryDataset open(String binaryFileName) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(binaryFileName, "r");
+             FileChannel channel = file.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a binary dataset file: " + binaryFileName);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            // An empty CSV converts to 0 x 0, which opens as an empty dataset
+            if (rows < 0 || cols < 0 || (cols == 0 && rows > 0)) {
+                throw new IOException("Corrupt header in " + binaryFileName + ": " + rows + " x " + cols);
+            }
+            long expectedSize = HEADER_SIZE + (long) rows * cols;
+            if (channel.size() < expectedSize) {
+                throw new IOException("Truncated binary dataset " + binaryFileName + ": expected "
+                        + expectedSize + " bytes, found " + channel.size());
+            }
+
+            int rowsPerSegment = cols == 0 ? 1 : Math.max(1, Integer.MAX_VALUE / cols);
+            int numSegments = rows == 0 ? 0 : (rows + rowsPerSegment - 1) / rowsPerSegment;
+            MappedByteBuffer[] segments = new MappedByteBuffer[numSegments];
+            for (int s = 0; s < numSegments; s++) {
+                int firstRow = s * rowsPerSegment;
+                int segmentRows = Math.min(rowsPerSegment, rows - firstRow);
+                long position = HEADER_SIZE + (long) firstRow * cols;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) segmentRows * cols);
+            }
+            return new BinaryDataset(segments, rowsPerSegment, rows, cols);
+        }
+    }
+
+    // One-time conversion of a CSV file of small non-negative integers into the binary format.
+    // Rows are streamed, so the CSV never has to fit in memory.
+    public static void convertFromCsv(String csvFileName, String binaryFileName) throws IOException {
+        int rows = 0;
+        int cols = -1;
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFileName));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFileName)))) {
+            // Header placeholder, rewritten once the row count is known
+            out.writeInt(MAGIC);
+            out.writeInt(0);
+            out.writeInt(0);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                int col = 0;
+                int value = 0;
+                boolean hasDigits = false;
+                for (int i = 0; i <= line.length(); i++) {
+                    char ch = i < line.length() ? line.charAt(i) : ',';
+                    if (ch >= '0' && ch <= '9') {
+                        value = value * 10 + (ch - '0');
+                        hasDigits = true;
+                        if (value > MAX_VALUE) {
+                            throw new IOException("Value out of range 0.." + MAX_VALUE + " at row " + (rows + 1) + ", column " + (col + 1));
+                        }
+                    } else if (ch == ',') {
+                        if (!hasDigits) {
+                            throw new IOException("Missing value at row " + (rows + 1) + ", column " + (col + 1));
+                        }
+                        out.writeByte(value);
+                        col++;
+                        value = 0;
+                        hasDigits = false;
+                    } else if (ch != ' ' && ch != '\r') {
+                        throw new IOException("Unexpected character '" + ch + "' at row " + (rows + 1) + ", column " + (col + 1));
+                    }
+                }
+                if (cols == -1) {
+                    cols = col;
+                } else if (col != cols) {
+                    throw new IOException("Row " + (rows + 1) + " has " + col + " columns, expected " + cols);
+                }
+                rows++;
+            }
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(binaryFileName, "rw")) {
+            file.seek(4);
+            file.writeInt(rows);
+            file.writeInt(Math.max(cols, 0));
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int get(int row, int col) {
+        MappedByteBuffer segment = segments[row / rowsPerSegment];
+        int position = (row % rowsPerSegment) * columnCount + col;
+        return segment.get(position) & 0xFF;
+    }
+
+    // Copies one row into dest, which must hold at least getColumnCount() values
+    public void readRow(int row, int[] dest) {
+        MappedByteBuffer segment = segments[row / rowsPerSegment];
+        int base = (row % rowsPerSegment) * columnCount;
+        for (int col = 0; col < columnCount; col++) {
+            dest[col] = segment.get(base + col) & 0xFF;
+        }
+    }
+
+    // Materializes the whole dataset in the same int[][] layout DataLoader.loadData returns
+    public int[][] toArray() {
+        int[][] data = new int[rowCount][columnCount];
+        for (int row = 0; row < rowCount; row++) {
+            readRow(row, data[row]);
+        }
+        return data;
+    }
+
+    // Command-line converter: java BinaryDataset <input.csv> <output.bin>
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java BinaryDataset <input.csv> <output.bin>");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            convertFromCsv(args[0], args[1]);
+            BinaryDataset dataset = open(args[1]);
+            System.out.println("Converted " + dataset.getRowCount() + " rows x " + dataset.getColumnCount()
+                    + " columns in " + (System.currentTimeMillis() - start) + " ms: " + args[1]);
+        } catch (IOException e) {
+            System.err.println("Conversion failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,367 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CachingClassifier implements Classifier {
+    // Wraps any classifier and remembers its predictions by sample vector, so repeated queries skip
+    // the model entirely. Samples are keyed by a 64-bit hash of their values and compared in full on
+    // lookup, so a hash collision never returns another sample's label.
+    // The cache is split into lock-striped segments chosen by hash bits, each an access-ordered LRU
+    // map with its own share of the entry and byte bounds; threads only contend when their samples
+    // land in the same segment. With tinyLfu, a new entry is only admitted to a full segment when a
+    // count-min sketch of recent accesses has seen it more often than the LRU victim (TinyLFU), which
+    // keeps one-off samples from flushing frequently repeated ones. train clears the cache.
+    public static final int DEFAULT_SEGMENTS = 16;
+    private static final int ENTRY_OVERHEAD_BYTES = 96; // key object, array header and map entry, approximately
+    private static final int SKETCH_DEPTH = 4;
+    private static final long[] SKETCH_SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final Classifier delegate;
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final boolean tinyLfu;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    // LRU cache of at most maxEntries predictions
+    public CachingClassifier(Classifier delegate, int maxEntries) {
+        this(delegate, maxEntries, Long.MAX_VALUE, false, DEFAULT_SEGMENTS);
+    }
+
+    // maxEntries and maxBytes both bound the cache (pass Integer.MAX_VALUE / Long.MAX_VALUE to leave
+    // one open). segments is rounded up to a power of two, then lowered to at most maxEntries, and
+    // the bounds are split between the segments so that their shares add up to exactly the bounds
+    public CachingClassifier(Classifier delegate, int maxEntries, long maxBytes, boolean tinyLfu, int segments) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        int count = Integer.highestOneBit(Math.max(1, segments - 1)) << (segments > 1 ? 1 : 0);
+        count = Math.min(count, Integer.highestOneBit((int) Math.min(maxEntries, maxBytes)));
+        this.delegate = delegate;
+        this.tinyLfu = tinyLfu;
+        this.segments = new Segment[count];
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+        for (int i = 0; i < count; i++) {
+            int entries = maxEntries / count + (i < maxEntries % count ? 1 : 0);
+            long bytes = maxBytes == Long.MAX_VALUE ? Long.MAX_VALUE : maxBytes / count + (i < maxBytes % count ? 1 : 0);
+            this.segments[i] = new Segment(entries, bytes);
+        }
+    }
+
+    public Classifier getDelegate() {
+        return delegate;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long total = hits.sum() + misses.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    // Entries dropped to make room for new ones
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // New entries that TinyLFU admission turned away
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    public long getEntryCount() {
+        long entries = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.map.size();
+            }
+        }
+        return entries;
+    }
+
+    // Estimated memory of the cached entries
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                bytes += segment.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    // One-line report for experiment logs
+    public String getSummary() {
+        return String.format("Cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %d rejected, %d entries, %.1f KB",
+            getHitCount(), getMissCount(), 100 * getHitRate(), getEvictionCount(), getRejectionCount(),
+            getEntryCount(), getSizeInBytes() / 1024.0);
+    }
+
+    // Zeroes the hit, miss, eviction and rejection counts; the cached entries stay
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        rejections.reset();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+                segment.bytes = 0;
+            }
+        }
+    }
+
+    @Override
+    public void train(int[][] features, int[] labels) {
+        delegate.train(features, labels);
+        clear();
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        delegate.train(features, labels);
+        clear();
+    }
+
+    @Override
+    public int predict(int[] sample) {
+        long hash = hash(sample, 0, sample.length);
+        Integer cached = lookup(sample, 0, sample.length, hash);
+        if (cached != null) {
+            return cached;
+        }
+        int prediction = delegate.predict(sample);
+        store(sample, 0, sample.length, hash, prediction);
+        return prediction;
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        int[] data = samples.getData();
+        int offset = samples.rowOffset(row);
+        int length = samples.getColumnCount();
+        long hash = hash(data, offset, length);
+        Integer cached = lookup(data, offset, length, hash);
+        if (cached != null) {
+            return cached;
+        }
+        int prediction = delegate.predict(samples, row);
+        store(data, offset, length, hash, prediction);
+        return prediction;
+    }
+
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    // Cached rows are answered directly; the rest go to the delegate as one smaller batch
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int m = samples.getRowCount();
+        int length = samples.getColumnCount();
+        int[] data = samples.getData();
+        int[] predictions = new int[m];
+        long[] hashes = new long[m];
+        int[] missing = new int[m];
+        int missCount = 0;
+        for (int r = 0; r < m; r++) {
+            hashes[r] = hash(data, samples.rowOffset(r), length);
+            Integer cached = lookup(data, samples.rowOffset(r), length, hashes[r]);
+            if (cached != null) {
+                predictions[r] = cached;
+            } else {
+                missing[missCount++] = r;
+            }
+        }
+        if (missCount > 0) {
+            missing = java.util.Arrays.copyOf(missing, missCount);
+            int[] computed = delegate.predictBatch(samples.selectRows(missing));
+            for (int j = 0; j < missCount; j++) {
+                int r = missing[j];
+                predictions[r] = computed[j];
+                store(data, samples.rowOffset(r), length, hashes[r], computed[j]);
+            }
+        }
+        return predictions;
+    }
+
+    // 64-bit hash of values[offset, offset + length): two values per multiply, then a murmur3 finalizer
+    static long hash(int[] values, int offset, int length) {
+        long h = 0x9E3779B97F4A7C15L ^ length;
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            long pair = ((long) values[offset + i] << 32) | (values[offset + i + 1] & 0xFFFFFFFFL);
+            h = (h ^ pair) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 29;
+        }
+        if (i < length) {
+            h = (h ^ (values[offset + i] & 0xFFFFFFFFL)) * 0xBF58476D1CE4E5B9L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[segmentShift == 64 ? 0 : (int) (hash >>> segmentShift)];
+    }
+
+    private Integer lookup(int[] values, int offset, int length, long hash) {
+        Segment segment = segmentFor(hash);
+        Integer cached;
+        synchronized (segment) {
+            if (tinyLfu) {
+                segment.recordAccess(hash);
+            }
+            cached = segment.map.get(new Key(values, offset, length, hash));
+        }
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    private void store(int[] values, int offset, int length, long hash, int prediction) {
+        Key key = new Key(java.util.Arrays.copyOfRange(values, offset, offset + length), 0, length, hash);
+        long entryBytes = ENTRY_OVERHEAD_BYTES + 4L * length;
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            if (segment.map.containsKey(key)) {
+                return; // another thread stored it meanwhile
+            }
+            if (entryBytes > segment.maxBytes) {
+                rejections.increment();
+                return;
+            }
+            // Find the LRU victims that make room for the entry and decide on admission before
+            // removing any of them, so a rejected entry leaves the segment as it was
+            int victims = 0;
+            long freedBytes = 0;
+            int candidateFrequency = tinyLfu ? segment.frequency(hash) : 0;
+            Iterator<Key> lru = segment.map.keySet().iterator();
+            while (segment.map.size() - victims >= segment.maxEntries
+                || segment.bytes - freedBytes + entryBytes > segment.maxBytes) {
+                Key victim = lru.next();
+                if (tinyLfu && candidateFrequency <= segment.frequency(victim.hash)) {
+                    rejections.increment();
+                    return;
+                }
+                freedBytes += ENTRY_OVERHEAD_BYTES + 4L * victim.length;
+                victims++;
+            }
+            lru = segment.map.keySet().iterator();
+            for (int i = 0; i < victims; i++) {
+                lru.next();
+                lru.remove();
+            }
+            segment.bytes -= freedBytes;
+            evictions.add(victims);
+            segment.map.put(key, prediction);
+            segment.bytes += entryBytes;
+        }
+    }
+
+    // A sample vector inside a larger array; cached keys own a copy starting at offset 0
+    private static final class Key {
+        final int[] values;
+        final int offset;
+        final int length;
+        final long hash;
+
+        Key(int[] values, int offset, int length, long hash) {
+            this.values = values;
+            this.offset = offset;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            if (key.hash != hash || key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (values[offset + i] != key.values[key.offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // One lock stripe: an access-ordered map (eldest first) and, for TinyLFU, its frequency sketch
+    private static final class Segment {
+        final LinkedHashMap<Key, Integer> map = new LinkedHashMap<>(16, 0.75f, true);
+        final int maxEntries;
+        final long maxBytes;
+        long bytes;
+        private int[] sketch; // SKETCH_DEPTH rows of counters, created on first access
+        private int sketchMask;
+        private int sketchAdditions;
+
+        Segment(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        void recordAccess(long hash) {
+            if (sketch == null) {
+                int width = Integer.highestOneBit(Math.max(16, Math.min(1 << 20, 2 * maxEntries - 1))) << 1;
+                sketch = new int[SKETCH_DEPTH * width];
+                sketchMask = width - 1;
+            }
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                sketch[row * (sketchMask + 1) + index(hash, row)]++;
+            }
+            // Halve every counter after a window of ten accesses per slot, so old frequencies fade
+            if (++sketchAdditions >= 10 * (sketchMask + 1)) {
+                for (int i = 0; i < sketch.length; i++) {
+                    sketch[i] >>>= 1;
+                }
+                sketchAdditions /= 2;
+            }
+        }
+
+        // Estimated recent accesses: the smallest of the hash's counters
+        int frequency(long hash) {
+            if (sketch == null) {
+                return 0;
+            }
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                min = Math.min(min, sketch[row * (sketchMask + 1) + index(hash, row)]);
+            }
+            return min;
+        }
+
+        private int index(long hash, int row) {
+            long h = hash * SKETCH_SEEDS[row];
+            return (int) (h >>> 32) & sketchMask;
+        }
+    }
+}
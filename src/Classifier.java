@@ -3,4 +3,32 @@ public interface Classifier {
     // Implementations must provide a training method and a prediction method.
     void train(int[][] features, int[] labels);
     int predict(int[] sample);
+
+    // DenseMatrix variants: rows live in one contiguous array instead of separate int[] objects.
+    // The defaults fall back to the int[][] methods; the built-in classifiers work on the matrix directly.
+    default void train(DenseMatrix features, int[] labels) {
+        train(features.toArray(), labels);
+    }
+
+    default int predict(DenseMatrix samples, int row) {
+        return predict(samples.getRow(row));
+    }
+
+    // Predicts every sample at once. Implementations override these to share work across samples
+    // (blocked matrix products, tiled distance scans, level-wise tree traversal).
+    default int[] predictBatch(int[][] samples) {
+        int[] predictions = new int[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            predictions[i] = predict(samples[i]);
+        }
+        return predictions;
+    }
+
+    default int[] predictBatch(DenseMatrix samples) {
+        int[] predictions = new int[samples.getRowCount()];
+        for (int i = 0; i < predictions.length; i++) {
+            predictions[i] = predict(samples, i);
+        }
+        return predictions;
+    }
 }
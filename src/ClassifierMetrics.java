@@ -0,0 +1,126 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClassifierMetrics {
+    // Latency, training duration and allocation figures collected by InstrumentedClassifier.
+    // Allocations come from the HotSpot per-thread allocation counter, which counts every byte
+    // the calling thread allocated during the call (including garbage that was collected again).
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    private final LatencyHistogram predictLatency = new LatencyHistogram();
+    private final List<Long> trainDurations = new ArrayList<>(); // ns, one per train call
+    private long predictCount;
+    private long predictAllocatedBytes;
+    private long trainAllocatedBytes;
+    private long batchCount;
+    private long batchSamples;
+    private long batchNanos;
+    private long batchAllocatedBytes;
+
+    // Allocated bytes of the current thread so far, or -1 when the JVM does not track them
+    public static long currentThreadAllocatedBytes() {
+        if (ALLOCATION_COUNTER == null) {
+            return -1;
+        }
+        return ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static boolean isAllocationTrackingSupported() {
+        return ALLOCATION_COUNTER != null;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+        try {
+            if (!counter.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            counter.setThreadAllocatedMemoryEnabled(true);
+            return counter;
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    synchronized void recordPredict(long nanos, long allocatedBytes) {
+        predictLatency.record(nanos);
+        predictCount++;
+        predictAllocatedBytes += Math.max(0, allocatedBytes);
+    }
+
+    synchronized void recordTrain(long nanos, long allocatedBytes) {
+        trainDurations.add(nanos);
+        trainAllocatedBytes += Math.max(0, allocatedBytes);
+    }
+
+    synchronized void recordBatch(int samples, long nanos, long allocatedBytes) {
+        batchCount++;
+        batchSamples += samples;
+        batchNanos += nanos;
+        batchAllocatedBytes += Math.max(0, allocatedBytes);
+    }
+
+    // Adds the figures of another metrics object, e.g. to combine cross-validation folds
+    public synchronized void add(ClassifierMetrics other) {
+        synchronized (other) {
+            predictLatency.add(other.predictLatency);
+            trainDurations.addAll(other.trainDurations);
+            predictCount += other.predictCount;
+            predictAllocatedBytes += other.predictAllocatedBytes;
+            trainAllocatedBytes += other.trainAllocatedBytes;
+            batchCount += other.batchCount;
+            batchSamples += other.batchSamples;
+            batchNanos += other.batchNanos;
+            batchAllocatedBytes += other.batchAllocatedBytes;
+        }
+    }
+
+    // Latency of single-sample predict calls in nanoseconds
+    public LatencyHistogram getPredictLatency() {
+        return predictLatency;
+    }
+
+    public synchronized long getPredictCount() {
+        return predictCount;
+    }
+
+    public synchronized double getBytesPerPredict() {
+        return predictCount == 0 ? 0 : (double) predictAllocatedBytes / predictCount;
+    }
+
+    public synchronized int getTrainCount() {
+        return trainDurations.size();
+    }
+
+    // Duration of every train call so far, in nanoseconds
+    public synchronized long[] getTrainDurations() {
+        long[] durations = new long[trainDurations.size()];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = trainDurations.get(i);
+        }
+        return durations;
+    }
+
+    public synchronized double getBytesPerTrain() {
+        return trainDurations.isEmpty() ? 0 : (double) trainAllocatedBytes / trainDurations.size();
+    }
+
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    // Samples per second over all predictBatch calls
+    public synchronized double getBatchThroughput() {
+        return batchNanos == 0 ? 0 : batchSamples * 1e9 / batchNanos;
+    }
+
+    public synchronized double getBytesPerBatchSample() {
+        return batchSamples == 0 ? 0 : (double) batchAllocatedBytes / batchSamples;
+    }
+}
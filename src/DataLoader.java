@@ -1,41 +1,255 @@
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
+import java.util.stream.IntStream;
 
 public class DataLoader {
-    private static final String COMMA_DELIMITER = ",";
+    private static final byte COMMA_DELIMITER = ',';
+
+    // Files are split into line-aligned chunks of at least this size before parsing in parallel
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    // Upper bound per chunk, which also keeps every mapping well below the 2GB limit
+    private static final long MAX_CHUNK_SIZE = 64L << 20;
 
     // Loads a CSV file of integers into a 2D array.
     // Each row of the CSV is converted to an int[].
     // Any parsing errors yield a default value of 0 for that cell.
+    // The file is read as raw bytes through a FileChannel and split into line-aligned
+    // chunks that are parsed in parallel; no String is created per line or per cell.
     public static int[][] loadData(String csvFileName) {
-        List<int[]> dataList = new ArrayList<>();
         File file = new File(csvFileName);
         System.out.println("Attempting to open file at path: " + file.getAbsolutePath());
 
-        try (Scanner scanner = new Scanner(file)) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String[] values = line.split(COMMA_DELIMITER);
-                int[] row = new int[values.length];
-                for (int col = 0; col < values.length; col++) {
-                    try {
-                        row[col] = Integer.parseInt(values[col]);
-                    } catch (NumberFormatException e) {
-                        System.out.println("Error parsing value at row " + (dataList.size() + 1) + ", column " + (col + 1));
-                        row[col] = 0;
-                    }
-                }
-                dataList.add(row);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long[] bounds = chunkBounds(channel);
+            int numChunks = bounds.length - 1;
+
+            ParsedChunk[] chunks;
+            if (numChunks == 1) {
+                chunks = new ParsedChunk[]{parseChunk(channel, bounds[0], bounds[1])};
+            } else {
+                chunks = IntStream.range(0, numChunks).parallel()
+                        .mapToObj(c -> parseChunk(channel, bounds[c], bounds[c + 1]))
+                        .toArray(ParsedChunk[]::new);
             }
-        } catch (FileNotFoundException e) {
+            return assemble(chunks);
+        } catch (IOException | UncheckedIOException e) {
             e.printStackTrace();
             System.out.println("File not found: " + csvFileName);
             return new int[0][];
         }
+    }
+
+    // Chooses chunk boundaries so that every chunk ends just after a newline (or at end of file)
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int cores = Runtime.getRuntime().availableProcessors();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, (size + cores * 4L - 1) / (cores * 4L));
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long start = 0;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (start < size) {
+            long end = start + chunkSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = nextLineStart(channel, end, size, probe);
+            }
+            bounds.add(end);
+            start = end;
+        }
+        if (bounds.size() == 1) {
+            bounds.add(size); // empty file: one empty chunk
+        }
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
 
-        return dataList.toArray(new int[0][]);
+    // Returns the position just after the first '\n' at or after position, or size if there is none
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        long pos = position;
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    // Parses one line-aligned region of the file into a flat cell buffer plus row boundaries.
+    // Mirrors Integer.parseInt per cell: an optional sign followed by digits, anything else becomes 0.
+    // Trailing empty cells are dropped (as String.split does) and blank lines are skipped.
+    private static ParsedChunk parseChunk(FileChannel channel, long start, long end) {
+        ParsedChunk chunk = new ParsedChunk((int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, (end - start) / 4)));
+        if (end <= start) return chunk;
+
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int length = buffer.limit();
+        int col = 0;              // index of the cell being parsed in the current row
+        int pendingEmpty = 0;     // empty cells seen but not yet known to be followed by a value
+        boolean rowHasContent = false;
+        long value = 0;
+        boolean negative = false;
+        int digits = 0;
+        boolean cellStarted = false;
+        boolean cellValid = true;
+
+        for (int i = 0; i <= length; i++) {
+            byte b = i < length ? buffer.get(i) : (byte) '\n';
+
+            if (b == COMMA_DELIMITER || b == '\n') {
+                if (cellStarted) {
+                    // Flush empty cells that turned out not to be trailing
+                    for (; pendingEmpty > 0; pendingEmpty--) {
+                        chunk.addError(col - pendingEmpty);
+                        chunk.add(0);
+                    }
+                    if (cellValid && digits > 0) {
+                        chunk.add((int) (negative ? -value : value));
+                    } else {
+                        chunk.addError(col);
+                        chunk.add(0);
+                    }
+                    rowHasContent = true;
+                } else {
+                    pendingEmpty++;
+                }
+                col++;
+                value = 0;
+                negative = false;
+                digits = 0;
+                cellStarted = false;
+                cellValid = true;
+
+                if (b == '\n') {
+                    if (rowHasContent) {
+                        chunk.endRow();
+                    }
+                    col = 0;
+                    pendingEmpty = 0;
+                    rowHasContent = false;
+                }
+                continue;
+            }
+
+            if (b == '\r' && (i + 1 == length || buffer.get(i + 1) == '\n')) {
+                continue; // Windows line ending
+            }
+
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digits++;
+                if (value > (negative ? 1L + Integer.MAX_VALUE : Integer.MAX_VALUE)) {
+                    cellValid = false;
+                    value = 0;
+                }
+            } else if ((b == '-' || b == '+') && !cellStarted) {
+                negative = b == '-';
+            } else {
+                cellValid = false;
+            }
+            cellStarted = true;
+        }
+        return chunk;
+    }
+
+    // Concatenates the parsed chunks in file order and reports parse errors with global row numbers
+    private static int[][] assemble(ParsedChunk[] chunks) {
+        int totalRows = 0;
+        for (ParsedChunk chunk : chunks) totalRows += chunk.rowCount;
+
+        int[][] data = new int[totalRows][];
+        int row = 0;
+        for (ParsedChunk chunk : chunks) {
+            for (int e = 0; e < chunk.errorCount; e++) {
+                System.out.println("Error parsing value at row " + (row + chunk.errorRows[e] + 1) + ", column " + (chunk.errorCols[e] + 1));
+            }
+            int cellStart = 0;
+            for (int r = 0; r < chunk.rowCount; r++) {
+                int cellEnd = chunk.rowEnds[r];
+                data[row++] = Arrays.copyOfRange(chunk.cells, cellStart, cellEnd);
+                cellStart = cellEnd;
+            }
+        }
+        return data;
+    }
+
+    // Growable primitive buffers for one chunk: all cells back to back, plus the end offset of each row
+    private static class ParsedChunk {
+        int[] cells;
+        int cellCount;
+        int[] rowEnds = new int[64];
+        int rowCount;
+        int[] errorRows = new int[0];
+        int[] errorCols = new int[0];
+        int errorCount;
+
+        ParsedChunk(int initialCapacity) {
+            cells = new int[initialCapacity];
+        }
+
+        void add(int value) {
+            if (cellCount == cells.length) {
+                cells = Arrays.copyOf(cells, cells.length * 2);
+            }
+            cells[cellCount++] = value;
+        }
+
+        void endRow() {
+            if (rowCount == rowEnds.length) {
+                rowEnds = Arrays.copyOf(rowEnds, rowEnds.length * 2);
+            }
+            rowEnds[rowCount++] = cellCount;
+        }
+
+        void addError(int col) {
+            if (errorCount == errorRows.length) {
+                errorRows = Arrays.copyOf(errorRows, Math.max(4, errorCount * 2));
+                errorCols = Arrays.copyOf(errorCols, errorRows.length);
+            }
+            errorRows[errorCount] = rowCount;
+            errorCols[errorCount] = col;
+            errorCount++;
+        }
+    }
+
+    // Loads a dataset written by BinaryDataset.convertFromCsv into a 2D array.
+    // The file is memory-mapped, so there is no per-cell parsing.
+    public static int[][] loadBinaryData(String binaryFileName) {
+        File file = new File(binaryFileName);
+        System.out.println("Attempting to open file at path: " + file.getAbsolutePath());
+
+        try {
+            return BinaryDataset.open(binaryFileName).toArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.out.println("Could not read binary dataset: " + binaryFileName);
+            return new int[0][];
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+public class Dataset {
+    // An immutable, load-once view of the experiment data.
+    // Each part (CSV file) is parsed and split into features/labels exactly once, and the
+    // cross-validation folds are precomputed so that every experiment can share them.
+    // Every part is also kept as a contiguous DenseMatrix for the classifiers' matrix paths.
+    // The arrays handed out are shared between all callers and must not be modified.
+    private final int[][][] partFeatures;
+    private final int[][] partLabels;
+    private final DenseMatrix[] partMatrices;
+    private final int numClasses;
+    private final Fold[] folds;
+
+    private Dataset(int[][][] partFeatures, int[][] partLabels) {
+        this.partFeatures = partFeatures;
+        this.partLabels = partLabels;
+        this.partMatrices = new DenseMatrix[partFeatures.length];
+        for (int p = 0; p < partFeatures.length; p++) {
+            partMatrices[p] = DenseMatrix.of(partFeatures[p]);
+        }
+
+        int maxLabel = Integer.MIN_VALUE;
+        for (int[] labels : partLabels) {
+            maxLabel = Math.max(maxLabel, Utils.getMaxLabel(labels));
+        }
+        this.numClasses = maxLabel + 1;
+
+        // Fold i tests on part (i + 1) % k and trains on every other part,
+        // which for two parts gives the usual "train on 1, test on 2" and "train on 2, test on 1".
+        int k = partFeatures.length;
+        this.folds = new Fold[k];
+        for (int i = 0; i < k; i++) {
+            int testPart = (i + 1) % k;
+            if (k == 1) {
+                this.folds[i] = new Fold(partFeatures[0], partMatrices[0], partLabels[0], partFeatures[0], partMatrices[0], partLabels[0]);
+            } else {
+                int[][] trainFeatures = concatFeatures(testPart);
+                DenseMatrix trainMatrix = k == 2 ? partMatrices[1 - testPart] : DenseMatrix.of(trainFeatures);
+                this.folds[i] = new Fold(trainFeatures, trainMatrix, concatLabels(testPart),
+                        partFeatures[testPart], partMatrices[testPart], partLabels[testPart]);
+            }
+        }
+    }
+
+    // Loads every CSV file once; each file becomes one part of the cross-validation split.
+    public static Dataset load(String... csvFileNames) {
+        int[][][] features = new int[csvFileNames.length][][];
+        int[][] labels = new int[csvFileNames.length][];
+        for (int p = 0; p < csvFileNames.length; p++) {
+            int[][] data = DataLoader.loadData(csvFileNames[p]);
+            features[p] = Utils.extractFeatures(data);
+            labels[p] = Utils.extractLabels(data);
+        }
+        return new Dataset(features, labels);
+    }
+
+    // Builds a dataset from feature/label arrays that are already in memory (one pair per part).
+    public static Dataset of(int[][][] partFeatures, int[][] partLabels) {
+        if (partFeatures.length == 0 || partFeatures.length != partLabels.length) {
+            throw new IllegalArgumentException("Need the same, non-zero number of feature and label parts");
+        }
+        return new Dataset(partFeatures.clone(), partLabels.clone());
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    public int getPartCount() {
+        return partFeatures.length;
+    }
+
+    public int[][] getFeatures(int part) {
+        return partFeatures[part];
+    }
+
+    public DenseMatrix getMatrix(int part) {
+        return partMatrices[part];
+    }
+
+    public int[] getLabels(int part) {
+        return partLabels[part];
+    }
+
+    public int getFoldCount() {
+        return folds.length;
+    }
+
+    public Fold getFold(int fold) {
+        return folds[fold];
+    }
+
+    // Training rows of every part except the excluded one, sharing the row arrays
+    private int[][] concatFeatures(int excludedPart) {
+        if (partFeatures.length == 2) {
+            return partFeatures[1 - excludedPart];
+        }
+        int total = 0;
+        for (int p = 0; p < partFeatures.length; p++) {
+            if (p != excludedPart) total += partFeatures[p].length;
+        }
+        int[][] rows = new int[total][];
+        int offset = 0;
+        for (int p = 0; p < partFeatures.length; p++) {
+            if (p == excludedPart) continue;
+            System.arraycopy(partFeatures[p], 0, rows, offset, partFeatures[p].length);
+            offset += partFeatures[p].length;
+        }
+        return rows;
+    }
+
+    private int[] concatLabels(int excludedPart) {
+        if (partLabels.length == 2) {
+            return partLabels[1 - excludedPart];
+        }
+        int total = 0;
+        for (int p = 0; p < partLabels.length; p++) {
+            if (p != excludedPart) total += partLabels[p].length;
+        }
+        int[] labels = new int[total];
+        int offset = 0;
+        for (int p = 0; p < partLabels.length; p++) {
+            if (p == excludedPart) continue;
+            System.arraycopy(partLabels[p], 0, labels, offset, partLabels[p].length);
+            offset += partLabels[p].length;
+        }
+        return labels;
+    }
+
+    // One train/test split of the dataset
+    public static class Fold {
+        private final int[][] trainFeatures;
+        private final DenseMatrix trainMatrix;
+        private final int[] trainLabels;
+        private final int[][] testFeatures;
+        private final DenseMatrix testMatrix;
+        private final int[] testLabels;
+
+        Fold(int[][] trainFeatures, DenseMatrix trainMatrix, int[] trainLabels,
+             int[][] testFeatures, DenseMatrix testMatrix, int[] testLabels) {
+            this.trainFeatures = trainFeatures;
+            this.trainMatrix = trainMatrix;
+            this.trainLabels = trainLabels;
+            this.testFeatures = testFeatures;
+            this.testMatrix = testMatrix;
+            this.testLabels = testLabels;
+        }
+
+        public int[][] getTrainFeatures() {
+            return trainFeatures;
+        }
+
+        public DenseMatrix getTrainMatrix() {
+            return trainMatrix;
+        }
+
+        public int[] getTrainLabels() {
+            return trainLabels;
+        }
+
+        public int[][] getTestFeatures() {
+            return testFeatures;
+        }
+
+        public DenseMatrix getTestMatrix() {
+            return testMatrix;
+        }
+
+        public int[] getTestLabels() {
+            return testLabels;
+        }
+    }
+}
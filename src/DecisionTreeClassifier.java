@@ -27,13 +27,25 @@ class DecisionTreeClassifier implements Classifier {
 
     @Override
     public void train(int[][] features, int[] labels) {
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
         List<Integer> indices = new ArrayList<>();
-        for (int i = 0; i < features.length; i++) indices.add(i);
+        for (int i = 0; i < features.getRowCount(); i++) indices.add(i);
+        root = buildNode(features, labels, indices, 0);
+    }
+
+    // Trains on the given rows of features only (indices may repeat, e.g. for a bootstrap sample).
+    void train(DenseMatrix features, int[] labels, int[] sampleIndices) {
+        List<Integer> indices = new ArrayList<>(sampleIndices.length);
+        for (int i : sampleIndices) indices.add(i);
         root = buildNode(features, labels, indices, 0);
     }
 
     // Recursively builds the tree by finding splits that reduce impurity.
-    private Node buildNode(int[][] features, int[] labels, List<Integer> indices, int depth) {
+    private Node buildNode(DenseMatrix features, int[] labels, List<Integer> indices, int depth) {
         int n = indices.size();
         if (n == 0) return null;
 
@@ -59,7 +71,7 @@ class DecisionTreeClassifier implements Classifier {
         List<Integer> leftIdx = new ArrayList<>();
         List<Integer> rightIdx = new ArrayList<>();
         for (int i : indices) {
-            if (features[i][bestSplit.feature] <= bestSplit.threshold) {
+            if (features.get(i, bestSplit.feature) <= bestSplit.threshold) {
                 leftIdx.add(i);
             } else {
                 rightIdx.add(i);
@@ -88,9 +100,19 @@ class DecisionTreeClassifier implements Classifier {
 
     @Override
     public int predict(int[] sample) {
+        return predictAt(sample, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    // Prediction for a sample stored at offset inside a larger array (e.g. a DenseMatrix row)
+    int predictAt(int[] sample, int offset) {
         Node node = root;
         while (node != null && !node.isLeaf) {
-            if (sample[node.feature] <= node.threshold) {
+            if (sample[offset + node.feature] <= node.threshold) {
                 node = node.left;
             } else {
                 node = node.right;
@@ -99,9 +121,52 @@ class DecisionTreeClassifier implements Classifier {
         return node.classLabel;
     }
 
-    private Split findBestSplit(int[][] features, int[] labels, List<Integer> indices, int[] parentCounts) {
-        int d = features[0].length;
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int[] predictions = new int[samples.getRowCount()];
+        predictBatch(samples, predictions);
+        return predictions;
+    }
+
+    // Level-wise traversal: every pass moves all unfinished samples one level down the tree,
+    // so the nodes of one level are visited together instead of one root-to-leaf walk per sample.
+    void predictBatch(DenseMatrix samples, int[] predictions) {
+        int n = samples.getRowCount();
+        int d = samples.getColumnCount();
+        int[] data = samples.getData();
+        Node[] cursor = new Node[n];
+        int[] active = new int[n];
+        for (int i = 0; i < n; i++) {
+            cursor[i] = root;
+            active[i] = i;
+        }
+
+        int activeCount = n;
+        while (activeCount > 0) {
+            int next = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int i = active[a];
+                Node node = cursor[i];
+                if (node.isLeaf) {
+                    predictions[i] = node.classLabel;
+                    continue;
+                }
+                cursor[i] = data[i * d + node.feature] <= node.threshold ? node.left : node.right;
+                active[next++] = i;
+            }
+            activeCount = next;
+        }
+    }
+
+    private Split findBestSplit(DenseMatrix features, int[] labels, List<Integer> indices, int[] parentCounts) {
+        int d = features.getColumnCount();
         int n = indices.size();
+        int[] data = features.getData();
 
         // Random subset of features
         List<Integer> candidateFeatures = new ArrayList<>();
@@ -116,7 +181,7 @@ class DecisionTreeClassifier implements Classifier {
         // For each feature in candidateFeatures
         for (int f : candidateFeatures) {
             // Sort indices by this feature
-            indices.sort((a, b) -> Integer.compare(features[a][f], features[b][f]));
+            indices.sort((a, b) -> Integer.compare(data[a * d + f], data[b * d + f]));
 
             // Try splits between distinct feature values
             int[] leftCounts = new int[numClasses];
@@ -128,7 +193,7 @@ class DecisionTreeClassifier implements Classifier {
                 leftCounts[c]++;
                 rightCounts[c]--;
 
-                if (features[indices.get(i)][f] == features[indices.get(i+1)][f]) {
+                if (data[indices.get(i) * d + f] == data[indices.get(i+1) * d + f]) {
                     // Same value, no split here
                     continue;
                 }
@@ -147,7 +212,7 @@ class DecisionTreeClassifier implements Classifier {
                     bestGain = gain;
                     Split s = new Split();
                     s.feature = f;
-                    s.threshold = features[indices.get(i)][f];
+                    s.threshold = data[indices.get(i) * d + f];
                     s.gain = gain;
                     best = s;
                 }
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+
+public class DenseMatrix implements FeatureStore {
+    // A row-major matrix of ints backed by a single primitive array.
+    // Row r occupies data[r * cols .. (r + 1) * cols), so scanning rows walks memory sequentially.
+    private final int[] data;
+    private final int rows;
+    private final int cols;
+
+    public DenseMatrix(int rows, int cols) {
+        this(rows, cols, new int[Math.multiplyExact(rows, cols)]);
+    }
+
+    // Wraps an existing row-major array without copying it
+    public DenseMatrix(int rows, int cols, int[] data) {
+        if (data.length != (long) rows * cols) {
+            throw new IllegalArgumentException("Expected " + ((long) rows * cols) + " values, got " + data.length);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+    }
+
+    // Copies a jagged int[][] (all rows of the same length) into a contiguous matrix
+    public static DenseMatrix of(int[][] rows) {
+        int numRows = rows.length;
+        int numCols = numRows == 0 ? 0 : rows[0].length;
+        DenseMatrix matrix = new DenseMatrix(numRows, numCols);
+        for (int r = 0; r < numRows; r++) {
+            if (rows[r].length != numCols) {
+                throw new IllegalArgumentException("Row " + r + " has " + rows[r].length + " columns, expected " + numCols);
+            }
+            System.arraycopy(rows[r], 0, matrix.data, r * numCols, numCols);
+        }
+        return matrix;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return cols;
+    }
+
+    // The backing array, for hot loops that index it directly together with rowOffset()
+    public int[] getData() {
+        return data;
+    }
+
+    public int rowOffset(int row) {
+        return row * cols;
+    }
+
+    @Override
+    public int get(int row, int col) {
+        return data[row * cols + col];
+    }
+
+    public void set(int row, int col, int value) {
+        data[row * cols + col] = value;
+    }
+
+    public int[] getRow(int row) {
+        return Arrays.copyOfRange(data, row * cols, (row + 1) * cols);
+    }
+
+    @Override
+    public void copyRow(int row, int[] dest) {
+        System.arraycopy(data, row * cols, dest, 0, cols);
+    }
+
+    @Override
+    public long squaredDistance(int[] query, int queryOffset, int row) {
+        return DistanceCalculator.squaredDistance(query, queryOffset, data, row * cols, cols);
+    }
+
+    @Override
+    public long squaredDistance(int[] query, int queryOffset, int row, long bound) {
+        return DistanceCalculator.squaredDistance(query, queryOffset, data, row * cols, cols, bound);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return 4L * data.length;
+    }
+
+    // New matrix holding copies of the given rows, in order (indices may repeat)
+    public DenseMatrix selectRows(int[] indices) {
+        DenseMatrix selected = new DenseMatrix(indices.length, cols);
+        for (int i = 0; i < indices.length; i++) {
+            System.arraycopy(data, indices[i] * cols, selected.data, i * cols, cols);
+        }
+        return selected;
+    }
+
+    public int[][] toArray() {
+        int[][] result = new int[rows][];
+        for (int r = 0; r < rows; r++) {
+            result[r] = getRow(r);
+        }
+        return result;
+    }
+}
@@ -1,11 +1,125 @@
 public class DistanceCalculator {
+    // Bounded kernels check the running sum against the bound once per block of this many values
+    private static final int EARLY_ABANDON_BLOCK = ScalarDistanceKernels.EARLY_ABANDON_BLOCK;
+
+    // Set -Ddistance.kernels=scalar to skip the Vector API kernels
+    private static final DistanceKernels KERNELS = loadKernels();
+
+    // Uses VectorDistanceKernels (compiled from src-vector with --add-modules jdk.incubator.vector)
+    // when it is on the classpath and the module is present at runtime, otherwise the scalar loops
+    private static DistanceKernels loadKernels() {
+        if (!"scalar".equals(System.getProperty("distance.kernels"))) {
+            try {
+                return (DistanceKernels) Class.forName("VectorDistanceKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Not compiled, or jdk.incubator.vector not added at runtime
+            }
+        }
+        return new ScalarDistanceKernels();
+    }
+
+    // The kernels in use
+    public static DistanceKernels getKernels() {
+        return KERNELS;
+    }
+
     // Computes Euclidean distance between two feature vectors
     public static double euclideanDistance(int[] vector1, int[] vector2) {
-        double sum = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
-            double diff = vector1[i] - vector2[i];
+        return Math.sqrt(KERNELS.squaredDistance(vector1, 0, vector2, 0, vector1.length));
+    }
+
+    // Same as above for two vectors stored inside larger arrays (e.g. DenseMatrix rows)
+    public static double euclideanDistance(int[] data1, int offset1, int[] data2, int offset2, int length) {
+        return Math.sqrt(KERNELS.squaredDistance(data1, offset1, data2, offset2, length));
+    }
+
+    // Euclidean distance between int features and a double point such as a class centroid
+    public static double euclideanDistance(int[] features, double[] point) {
+        return Math.sqrt(KERNELS.squaredDistance(features, 0, point, 0, features.length));
+    }
+
+    // Squared Euclidean distance between two int vectors stored inside larger arrays
+    public static long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length) {
+        return KERNELS.squaredDistance(data1, offset1, data2, offset2, length);
+    }
+
+    // Squared distance with early abandon: returns the exact sum if it is <= bound, otherwise stops
+    // as soon as the partial sum exceeds the bound and returns that partial sum (some value > bound).
+    // Nearest-neighbor scans pass their current best, since anything beyond it can be discarded.
+    public static long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length, long bound) {
+        return KERNELS.squaredDistance(data1, offset1, data2, offset2, length, bound);
+    }
+
+    // Squared Euclidean distance between an int query and a row packed one unsigned byte per value
+    public static long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length) {
+        return KERNELS.squaredDistanceBytes(query, queryOffset, packed, packedOffset, length);
+    }
+
+    // Bounded version of the above, with the same early-abandon contract as squaredDistance(..., bound)
+    public static long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length, long bound) {
+        return KERNELS.squaredDistanceBytes(query, queryOffset, packed, packedOffset, length, bound);
+    }
+
+    // Dot product of double weights and int features
+    public static double dot(double[] weights, int[] features, int featureOffset) {
+        return KERNELS.dot(weights, 0, features, featureOffset, weights.length);
+    }
+
+    // Squared Euclidean distance between two rows packed one unsigned byte per value
+    public static long squaredDistanceBytes(byte[] packed1, int offset1, byte[] packed2, int offset2, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            int diff = (packed1[offset1 + i] & 0xFF) - (packed2[offset2 + i] & 0xFF);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    // Squared Euclidean distance between an int query and a row packed two 4-bit values per byte
+    // (even columns in the low nibble, odd columns in the high nibble)
+    public static long squaredDistanceNibbles(int[] query, int queryOffset, byte[] packed, int packedOffset, int length) {
+        long sum = 0;
+        int pairs = length >> 1;
+        for (int p = 0; p < pairs; p++) {
+            int b = packed[packedOffset + p] & 0xFF;
+            long diffLow = (long) query[queryOffset + 2 * p] - (b & 0x0F);
+            long diffHigh = (long) query[queryOffset + 2 * p + 1] - (b >>> 4);
+            sum += diffLow * diffLow + diffHigh * diffHigh;
+        }
+        if ((length & 1) != 0) {
+            long diff = (long) query[queryOffset + length - 1] - (packed[packedOffset + pairs] & 0x0F);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    // Bounded version of squaredDistanceNibbles, with the same early-abandon contract as squaredDistance(..., bound)
+    public static long squaredDistanceNibbles(int[] query, int queryOffset, byte[] packed, int packedOffset, int length, long bound) {
+        long sum = 0;
+        int pairs = length >> 1;
+        int p = 0;
+        while (p + EARLY_ABANDON_BLOCK / 2 <= pairs) {
+            int end = p + EARLY_ABANDON_BLOCK / 2;
+            for (; p < end; p++) {
+                int b = packed[packedOffset + p] & 0xFF;
+                long diffLow = (long) query[queryOffset + 2 * p] - (b & 0x0F);
+                long diffHigh = (long) query[queryOffset + 2 * p + 1] - (b >>> 4);
+                sum += diffLow * diffLow + diffHigh * diffHigh;
+            }
+            if (sum > bound) {
+                return sum;
+            }
+        }
+        for (; p < pairs; p++) {
+            int b = packed[packedOffset + p] & 0xFF;
+            long diffLow = (long) query[queryOffset + 2 * p] - (b & 0x0F);
+            long diffHigh = (long) query[queryOffset + 2 * p + 1] - (b >>> 4);
+            sum += diffLow * diffLow + diffHigh * diffHigh;
+        }
+        if ((length & 1) != 0) {
+            long diff = (long) query[queryOffset + length - 1] - (packed[packedOffset + pairs] & 0x0F);
             sum += diff * diff;
         }
-        return Math.sqrt(sum);
+        return sum;
     }
 }
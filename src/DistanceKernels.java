@@ -0,0 +1,34 @@
+public interface DistanceKernels {
+    // The innermost loops of the distance-based and linear classifiers. DistanceCalculator picks one
+    // implementation at startup: the Vector API kernels when they were compiled and the
+    // jdk.incubator.vector module is present, otherwise the scalar ones. All integer kernels return
+    // exactly the same values as the scalar loops; the floating-point ones may differ in rounding
+    // because they sum in a different order.
+
+    // Short description for run logs, e.g. "scalar" or "Vector API, 16 int lanes"
+    String getName();
+
+    // Squared Euclidean distance between two int vectors stored inside larger arrays
+    long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length);
+
+    // Early-abandon version: exact when <= bound, otherwise some value > bound
+    long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length, long bound);
+
+    // Squared Euclidean distance between an int query and a row packed one unsigned byte per value
+    long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length);
+
+    // Early-abandon version, same contract as squaredDistance(..., bound)
+    long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length, long bound);
+
+    // Dot product of two int vectors
+    long dot(int[] data1, int offset1, int[] data2, int offset2, int length);
+
+    // Dot product of an int query and a row packed one unsigned byte per value
+    long dotBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length);
+
+    // Dot product of double weights and int features (linear models)
+    double dot(double[] weights, int weightOffset, int[] features, int featureOffset, int length);
+
+    // Squared Euclidean distance between int features and a double point such as a class centroid
+    double squaredDistance(int[] features, int featureOffset, double[] point, int pointOffset, int length);
+}
@@ -0,0 +1,116 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExperimentScheduler {
+    // Runs independent (experiment, fold) tasks on a bounded thread pool.
+    // Each task writes its report lines into its own buffer and measures its own timings;
+    // results are collected per experiment in submission order, so the printed log stays
+    // grouped and deterministic no matter which task finishes first.
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public ExperimentScheduler(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "experiment-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // Queues one task per fold; they start as soon as a worker is free
+    public Experiment submit(String name, int numFolds, FoldTask task) {
+        List<Future<FoldResult>> folds = new ArrayList<>();
+        for (int fold = 0; fold < numFolds; fold++) {
+            final int f = fold;
+            folds.add(executor.submit(() -> {
+                List<String> log = new ArrayList<>();
+                FoldResult result = task.run(f, log);
+                result.log = log;
+                return result;
+            }));
+        }
+        return new Experiment(name, folds);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // One fold of one experiment. Report lines go into log instead of straight to the output.
+    public interface FoldTask {
+        FoldResult run(int fold, List<String> log) throws Exception;
+    }
+
+    public static class FoldResult {
+        private final double accuracy;
+        private final long trainingTime;   // ms, or -1 when the experiment does not time training
+        private final long evaluationTime; // ms
+        private final ClassifierMetrics metrics; // null when the fold was not instrumented
+        private List<String> log;
+
+        public FoldResult(double accuracy, long trainingTime, long evaluationTime) {
+            this(accuracy, trainingTime, evaluationTime, null);
+        }
+
+        public FoldResult(double accuracy, long trainingTime, long evaluationTime, ClassifierMetrics metrics) {
+            this.accuracy = accuracy;
+            this.trainingTime = trainingTime;
+            this.evaluationTime = evaluationTime;
+            this.metrics = metrics;
+        }
+
+        public double getAccuracy() {
+            return accuracy;
+        }
+
+        public long getTrainingTime() {
+            return trainingTime;
+        }
+
+        public long getEvaluationTime() {
+            return evaluationTime;
+        }
+
+        public ClassifierMetrics getMetrics() {
+            return metrics;
+        }
+
+        public List<String> getLog() {
+            return log;
+        }
+    }
+
+    public static class Experiment {
+        private final String name;
+        private final List<Future<FoldResult>> folds;
+
+        Experiment(String name, List<Future<FoldResult>> folds) {
+            this.name = name;
+            this.folds = folds;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getFoldCount() {
+            return folds.size();
+        }
+
+        // Blocks until the given fold has finished
+        public FoldResult awaitFold(int fold) throws InterruptedException, ExecutionException {
+            return folds.get(fold).get();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+public interface FeatureStore {
+    // Read-only access to a set of fixed-length feature vectors, as held by instance-based classifiers.
+    // Implementations choose the memory layout (plain ints, packed bytes, ...) and supply a
+    // squared-distance kernel that works directly on that layout.
+    int getRowCount();
+    int getColumnCount();
+    int get(int row, int col);
+    void copyRow(int row, int[] dest);
+
+    // Squared Euclidean distance between a query (length getColumnCount(), starting at queryOffset) and a stored row
+    long squaredDistance(int[] query, int queryOffset, int row);
+
+    // Same, but may stop early once the distance is known to exceed bound: the result is exact
+    // when it is <= bound and otherwise only guaranteed to be > bound
+    default long squaredDistance(int[] query, int queryOffset, int row, long bound) {
+        return squaredDistance(query, queryOffset, row);
+    }
+
+    // Approximate memory held by the stored vectors
+    long getSizeInBytes();
+}
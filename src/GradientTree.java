@@ -21,13 +21,17 @@ class GradientTree {
     }
 
     public void train(int[][] features, double[] gradients) {
+        train(DenseMatrix.of(features), gradients);
+    }
+
+    public void train(DenseMatrix features, double[] gradients) {
         List<Integer> indices = new ArrayList<>();
         for (int i = 0; i < gradients.length; i++) indices.add(i);
 
         root = buildNode(features, gradients, indices, 0);
     }
 
-    private Node buildNode(int[][] features, double[] gradients, List<Integer> indices, int depth) {
+    private Node buildNode(DenseMatrix features, double[] gradients, List<Integer> indices, int depth) {
         if (depth >= maxDepth || indices.size() < minSamplesSplit) {
             return createLeaf(gradients, indices);
         }
@@ -40,7 +44,7 @@ class GradientTree {
         List<Integer> leftIdx = new ArrayList<>();
         List<Integer> rightIdx = new ArrayList<>();
         for (int i : indices) {
-            if (features[i][best.feature] <= best.threshold) leftIdx.add(i);
+            if (features.get(i, best.feature) <= best.threshold) leftIdx.add(i);
             else rightIdx.add(i);
         }
 
@@ -72,9 +76,10 @@ class GradientTree {
         return leaf;
     }
 
-    private Split findBestSplit(int[][] features, double[] gradients, List<Integer> indices) {
+    private Split findBestSplit(DenseMatrix features, double[] gradients, List<Integer> indices) {
         int n = indices.size();
-        int d = features[0].length;
+        int d = features.getColumnCount();
+        int[] data = features.getData();
 
         // We'll pick best split by variance reduction on gradients
         double sumAll = 0.0;
@@ -97,7 +102,7 @@ class GradientTree {
             int f = rand.nextInt(d);
 
             // Sort indices by feature f
-            indices.sort((a,b) -> Integer.compare(features[a][f], features[b][f]));
+            indices.sort((a,b) -> Integer.compare(data[a * d + f], data[b * d + f]));
 
             double leftSum = 0.0;
             int leftCount = 0;
@@ -107,7 +112,7 @@ class GradientTree {
                 int idx = indices.get(i);
                 leftSum += gradients[idx];
                 leftCount++;
-                if (features[indices.get(i)][f] == features[indices.get(i+1)][f]) {
+                if (data[indices.get(i) * d + f] == data[indices.get(i+1) * d + f]) {
                     continue;
                 }
 
@@ -139,7 +144,7 @@ class GradientTree {
                     bestGain = gain;
                     Split s = new Split();
                     s.feature = f;
-                    s.threshold = features[indices.get(i)][f];
+                    s.threshold = data[indices.get(i) * d + f];
                     s.gain = gain;
                     best = s;
                 }
@@ -150,14 +155,48 @@ class GradientTree {
     }
 
     public double predict(int[] sample) {
+        return predictAt(sample, 0);
+    }
+
+    // Prediction for a sample stored at offset inside a larger array (e.g. a DenseMatrix row)
+    public double predictAt(int[] sample, int offset) {
         Node node = root;
         while (node != null && !node.isLeaf) {
-            if (sample[node.feature] <= node.threshold) node = node.left;
+            if (sample[offset + node.feature] <= node.threshold) node = node.left;
             else node = node.right;
         }
         return node.value;
     }
 
+    // Level-wise traversal of the whole batch: every pass moves all unfinished samples one level down
+    public void predictBatch(DenseMatrix samples, double[] out) {
+        int n = samples.getRowCount();
+        int d = samples.getColumnCount();
+        int[] data = samples.getData();
+        Node[] cursor = new Node[n];
+        int[] active = new int[n];
+        for (int i = 0; i < n; i++) {
+            cursor[i] = root;
+            active[i] = i;
+        }
+
+        int activeCount = n;
+        while (activeCount > 0) {
+            int next = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int i = active[a];
+                Node node = cursor[i];
+                if (node.isLeaf) {
+                    out[i] = node.value;
+                    continue;
+                }
+                cursor[i] = data[i * d + node.feature] <= node.threshold ? node.left : node.right;
+                active[next++] = i;
+            }
+            activeCount = next;
+        }
+    }
+
     class Node {
         boolean isLeaf;
         int feature;
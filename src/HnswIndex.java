@@ -0,0 +1,450 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class HnswIndex implements NeighborSearch {
+    // Approximate nearest-neighbor index: a Hierarchical Navigable Small World graph
+    // (Malkov & Yashunin). Every row is a node on layer 0 and, with exponentially falling
+    // probability, on higher layers too. A query walks greedily down from the sparse top layer and
+    // then runs a best-first search of width efSearch on layer 0.
+    //  - m: links per node on the upper layers (2*m on layer 0); more links, better recall, more memory
+    //  - efConstruction: search width while inserting; higher builds a better graph, more slowly
+    //  - efSearch: search width per query; the recall/latency knob, adjustable after the build
+    // Rows can be inserted concurrently, on the caller's ForkJoinPool (the common pool outside one):
+    // every neighbor list is guarded by its own lock.
+    private final FeatureStore points;
+    private final int m;
+    private final int maxLinks0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final int[] levels;
+    private final int[][][] links; // links[node][layer] = {count, neighbor, neighbor, ...}
+
+    private final Object entryLock = new Object();
+    private volatile int entryPoint = -1;
+    private volatile int maxLevel = -1;
+
+    private final ThreadLocal<Scratch> scratch;
+
+    public HnswIndex(FeatureStore points, int m, int efConstruction, int efSearch) {
+        this(points, m, efConstruction, efSearch, true, 42);
+    }
+
+    // parallelBuild: insert rows concurrently; a sequential build makes the graph reproducible
+    public HnswIndex(FeatureStore points, int m, int efConstruction, int efSearch, boolean parallelBuild, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2");
+        }
+        this.points = points;
+        this.m = m;
+        this.maxLinks0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = Math.max(1, efSearch);
+        int n = points.getRowCount();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(n, points.getColumnCount(), maxLinks0));
+
+        // Level of each node drawn up front from a fixed seed: floor(-ln(U) / ln(m))
+        Random random = new Random(seed);
+        double levelMultiplier = 1 / Math.log(m);
+        this.levels = new int[n];
+        this.links = new int[n][][];
+        for (int i = 0; i < n; i++) {
+            levels[i] = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            links[i] = new int[levels[i] + 1][];
+            links[i][0] = new int[maxLinks0 + 1];
+            for (int layer = 1; layer <= levels[i]; layer++) {
+                links[i][layer] = new int[m + 1];
+            }
+        }
+        build(parallelBuild);
+    }
+
+    @Override
+    public FeatureStore getPoints() {
+        return points;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = Math.max(1, efSearch);
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    // Fills squaredDistances/rows with up to k approximate nearest rows in ascending order and
+    // returns how many were found. Safe to call from many threads at once.
+    public int search(int[] query, int queryOffset, int k, long[] squaredDistances, int[] rows) {
+        int entry = entryPoint;
+        if (entry < 0 || k <= 0) {
+            return 0;
+        }
+        Scratch s = scratch.get();
+        int current = entry;
+        long currentDistance = points.squaredDistance(query, queryOffset, current);
+        for (int layer = maxLevel; layer > 0; layer--) {
+            current = greedyClosest(query, queryOffset, current, currentDistance, layer, s);
+            currentDistance = s.greedyDistance;
+        }
+        int found = searchLayer(query, queryOffset, current, currentDistance, Math.max(efSearch, k), 0, s);
+        int count = Math.min(k, found);
+        System.arraycopy(s.resultDistances, 0, squaredDistances, 0, count);
+        System.arraycopy(s.resultRows, 0, rows, 0, count);
+        return count;
+    }
+
+    // NeighborSearch view of search: the neighbors are approximate, so nearestWithin can miss a
+    // row within the bound when the graph walk does not reach it
+    @Override
+    public int nearest(int[] query, int queryOffset, int k, long[] squaredDistances, int[] rows) {
+        return search(query, queryOffset, k, squaredDistances, rows);
+    }
+
+    private void build(boolean parallel) {
+        int n = points.getRowCount();
+        if (n == 0) {
+            return;
+        }
+        entryPoint = 0;
+        maxLevel = levels[0];
+        if (parallel) {
+            IntStream.range(1, n).parallel().forEach(this::insert);
+        } else {
+            for (int i = 1; i < n; i++) {
+                insert(i);
+            }
+        }
+    }
+
+    private void insert(int node) {
+        Scratch s = scratch.get();
+        int[] vector = s.insertRow;
+        points.copyRow(node, vector);
+        int level = levels[node];
+        int entry;
+        int top;
+        synchronized (entryLock) {
+            entry = entryPoint;
+            top = maxLevel;
+        }
+
+        int current = entry;
+        long currentDistance = points.squaredDistance(vector, 0, current);
+        for (int layer = top; layer > level; layer--) {
+            current = greedyClosest(vector, 0, current, currentDistance, layer, s);
+            currentDistance = s.greedyDistance;
+        }
+
+        for (int layer = Math.min(level, top); layer >= 0; layer--) {
+            int found = searchLayer(vector, 0, current, currentDistance, efConstruction, layer, s);
+            long[] candidateDistances = Arrays.copyOf(s.resultDistances, found);
+            int[] candidates = Arrays.copyOf(s.resultRows, found);
+            int maxLinks = layer == 0 ? maxLinks0 : m;
+
+            int selected = selectNeighbors(candidates, candidateDistances, found, m, s);
+            int[] own = links[node][layer];
+            synchronized (own) {
+                own[0] = selected;
+                System.arraycopy(candidates, 0, own, 1, selected);
+            }
+            for (int i = 0; i < selected; i++) {
+                addLink(candidates[i], node, candidateDistances[i], layer, maxLinks, s);
+            }
+            current = candidates[0];
+            currentDistance = candidateDistances[0];
+        }
+
+        if (level > top) {
+            synchronized (entryLock) {
+                if (level > maxLevel) {
+                    maxLevel = level;
+                    entryPoint = node;
+                }
+            }
+        }
+    }
+
+    // Adds a link from -> to, re-selecting from's neighbors when its list is full
+    private void addLink(int from, int to, long distance, int layer, int maxLinks, Scratch s) {
+        int[] list = links[from][layer];
+        synchronized (list) {
+            int count = list[0];
+            if (count < maxLinks) {
+                list[count + 1] = to;
+                list[0] = count + 1;
+                return;
+            }
+            // Candidates are the current neighbors plus the new node, sorted by distance to from
+            points.copyRow(from, s.baseRow);
+            int[] candidates = s.pruneRows;
+            long[] distances = s.pruneDistances;
+            for (int i = 0; i < count; i++) {
+                candidates[i] = list[i + 1];
+                distances[i] = points.squaredDistance(s.baseRow, 0, candidates[i]);
+            }
+            candidates[count] = to;
+            distances[count] = distance;
+            sortByDistance(candidates, distances, count + 1);
+            int selected = selectNeighbors(candidates, distances, count + 1, maxLinks, s);
+            System.arraycopy(candidates, 0, list, 1, selected);
+            list[0] = selected;
+        }
+    }
+
+    // Neighbor selection heuristic: walking candidates from the closest, keep one only if it is
+    // closer to the base than to every neighbor kept so far. This spreads links over directions
+    // instead of spending them all on one dense cluster. Moves the kept candidates to the front.
+    private int selectNeighbors(int[] candidates, long[] distances, int count, int maxCount, Scratch s) {
+        int selected = 0;
+        for (int i = 0; i < count && selected < maxCount; i++) {
+            int candidate = candidates[i];
+            long distance = distances[i];
+            points.copyRow(candidate, s.candidateRow);
+            boolean keep = true;
+            for (int j = 0; j < selected; j++) {
+                if (points.squaredDistance(s.candidateRow, 0, candidates[j], distance) < distance) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                candidates[i] = candidates[selected];
+                distances[i] = distances[selected];
+                candidates[selected] = candidate;
+                distances[selected] = distance;
+                selected++;
+            }
+        }
+        return selected;
+    }
+
+    // Greedy walk on one layer: move to the closest neighbor until none is closer.
+    // Leaves the final distance in s.greedyDistance.
+    private int greedyClosest(int[] query, int queryOffset, int current, long currentDistance, int layer, Scratch s) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int count = copyLinks(current, layer, s.neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = s.neighbors[i];
+                long distance = points.squaredDistance(query, queryOffset, neighbor, currentDistance);
+                if (distance < currentDistance || (distance == currentDistance && neighbor < current)) {
+                    current = neighbor;
+                    currentDistance = distance;
+                    improved = true;
+                }
+            }
+        }
+        s.greedyDistance = currentDistance;
+        return current;
+    }
+
+    // Best-first search of width ef on one layer. Leaves the results in s.resultRows/resultDistances
+    // in ascending (distance, row) order and returns their count.
+    private int searchLayer(int[] query, int queryOffset, int entry, long entryDistance, int ef, int layer, Scratch s) {
+        s.nextVisit();
+        Heap candidates = s.candidates;
+        Heap results = s.results;
+        candidates.clear();
+        results.clear();
+        s.visit(entry);
+        candidates.add(entryDistance, entry);
+        results.add(entryDistance, entry);
+
+        while (candidates.size() > 0) {
+            long distance = candidates.topKey();
+            int node = candidates.topValue();
+            if (distance > results.topKey() && results.size() >= ef) {
+                break;
+            }
+            candidates.poll();
+            int count = copyLinks(node, layer, s.neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = s.neighbors[i];
+                if (!s.visit(neighbor)) {
+                    continue;
+                }
+                boolean full = results.size() >= ef;
+                long bound = full ? results.topKey() : Long.MAX_VALUE;
+                long neighborDistance = points.squaredDistance(query, queryOffset, neighbor, bound);
+                if (!full || neighborDistance < bound) {
+                    candidates.add(neighborDistance, neighbor);
+                    results.add(neighborDistance, neighbor);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        int found = results.size();
+        s.ensureResultCapacity(found);
+        for (int i = found - 1; i >= 0; i--) {
+            s.resultDistances[i] = results.topKey();
+            s.resultRows[i] = results.topValue();
+            results.poll();
+        }
+        sortByDistance(s.resultRows, s.resultDistances, found);
+        return found;
+    }
+
+    private int copyLinks(int node, int layer, int[] dest) {
+        int[] list = links[node][layer];
+        synchronized (list) {
+            int count = list[0];
+            System.arraycopy(list, 1, dest, 0, count);
+            return count;
+        }
+    }
+
+    // Insertion sort by (distance, row); the inputs are short and nearly sorted
+    private static void sortByDistance(int[] rows, long[] distances, int count) {
+        for (int i = 1; i < count; i++) {
+            long distance = distances[i];
+            int row = rows[i];
+            int j = i - 1;
+            while (j >= 0 && (distances[j] > distance || (distances[j] == distance && rows[j] > row))) {
+                distances[j + 1] = distances[j];
+                rows[j + 1] = rows[j];
+                j--;
+            }
+            distances[j + 1] = distance;
+            rows[j + 1] = row;
+        }
+    }
+
+    // Binary heap of (long key, int value) pairs; a max-heap, or a min-heap with minFirst
+    private static final class Heap {
+        private final boolean minFirst;
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int size;
+
+        Heap(boolean minFirst) {
+            this.minFirst = minFirst;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        long topKey() {
+            return keys[0];
+        }
+
+        int topValue() {
+            return values[0];
+        }
+
+        void add(long key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(key, value, keys[parent], values[parent])) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void poll() {
+            size--;
+            if (size == 0) {
+                return;
+            }
+            long key = keys[size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(keys[child + 1], values[child + 1], keys[child], values[child])) {
+                    child++;
+                }
+                if (!before(keys[child], values[child], key, value)) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private boolean before(long key, int value, long otherKey, int otherValue) {
+            if (key != otherKey) {
+                return minFirst ? key < otherKey : key > otherKey;
+            }
+            return minFirst ? value < otherValue : value > otherValue;
+        }
+    }
+
+    // Per-thread buffers, so searches and inserts allocate nothing per call
+    private static final class Scratch {
+        final int[] visited;
+        int visitStamp;
+        final Heap candidates = new Heap(true);
+        final Heap results = new Heap(false);
+        long[] resultDistances = new long[64];
+        int[] resultRows = new int[64];
+        final int[] neighbors;
+        final int[] insertRow;
+        final int[] baseRow;
+        final int[] candidateRow;
+        final int[] pruneRows;
+        final long[] pruneDistances;
+        long greedyDistance;
+
+        Scratch(int rows, int dims, int maxLinks) {
+            visited = new int[rows];
+            neighbors = new int[maxLinks];
+            insertRow = new int[dims];
+            baseRow = new int[dims];
+            candidateRow = new int[dims];
+            pruneRows = new int[maxLinks + 1];
+            pruneDistances = new long[maxLinks + 1];
+        }
+
+        void nextVisit() {
+            if (++visitStamp == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                visitStamp = 1;
+            }
+        }
+
+        // Marks node as visited in the current search; false if it already was
+        boolean visit(int node) {
+            if (visited[node] == visitStamp) {
+                return false;
+            }
+            visited[node] = visitStamp;
+            return true;
+        }
+
+        void ensureResultCapacity(int count) {
+            if (resultRows.length < count) {
+                resultRows = new int[2 * count];
+                resultDistances = new long[2 * count];
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+public class HnswRecallBenchmark {
+    // Measures HnswIndex recall and query latency against an exact brute-force scan for a range of
+    // efSearch values.
+    // Usage: java HnswRecallBenchmark [--rows N] [--dims D] [--queries Q] [--k K] [--m M]
+    //            [--ef-construction E] [--ef-search 10,20,40,...] [--threads T] [--dataset]
+    // With --dataset the digit files are used (part 1 as references, part 2 as queries) instead of
+    // generated clustered data. Recall counts a returned neighbor as correct when it is no farther
+    // than the true k-th nearest, so ties between equally distant rows are not held against it.
+    public static void main(String[] args) {
+        int rows = intOption(args, "--rows", 100000);
+        int dims = intOption(args, "--dims", 64);
+        int queryCount = intOption(args, "--queries", 1000);
+        int k = intOption(args, "--k", 10);
+        int m = intOption(args, "--m", 16);
+        int efConstruction = intOption(args, "--ef-construction", 200);
+        int threads = intOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+        String efValues = option(args, "--ef-search", "10,20,40,80,160,320");
+
+        DenseMatrix references;
+        DenseMatrix queries;
+        if (hasFlag(args, "--dataset")) {
+            Dataset dataset = Dataset.load("datasets/dataSet1.csv", "datasets/dataSet2.csv");
+            references = dataset.getMatrix(0);
+            queries = dataset.getMatrix(dataset.getPartCount() > 1 ? 1 : 0);
+        } else {
+            references = clusteredData(rows, dims, 1);
+            queries = clusteredData(queryCount, dims, 2);
+        }
+        rows = references.getRowCount();
+        dims = references.getColumnCount();
+        queryCount = queries.getRowCount();
+
+        System.out.println("HNSW recall benchmark: " + rows + " rows x " + dims + " features, "
+            + queryCount + " queries, k=" + k);
+
+        long start = System.nanoTime();
+        HnswIndex index = build(references, m, efConstruction, threads);
+        System.out.printf("Build: M=%d efConstruction=%d threads=%d: %d ms%n",
+            m, efConstruction, threads, (System.nanoTime() - start) / 1000000);
+
+        // Exact answers and brute-force latency
+        long[][] exact = new long[queryCount][k];
+        LatencyHistogram bruteLatency = new LatencyHistogram();
+        for (int q = 0; q < queryCount; q++) {
+            long t = System.nanoTime();
+            bruteForce(references, queries.getData(), queries.rowOffset(q), k, exact[q]);
+            bruteLatency.record(System.nanoTime() - t);
+        }
+        System.out.printf("Brute force: mean %.1f us, p99 %.1f us%n",
+            bruteLatency.getMean() / 1e3, bruteLatency.getValueAtPercentile(99) / 1e3);
+
+        System.out.println();
+        System.out.println(String.format("%9s %10s %10s %10s %9s", "efSearch", "recall@" + k, "mean us", "p99 us", "speedup"));
+        long[] distances = new long[k];
+        int[] found = new int[k];
+        for (String value : efValues.split(",")) {
+            int efSearch = Integer.parseInt(value.trim());
+            index.setEfSearch(efSearch);
+            LatencyHistogram latency = new LatencyHistogram();
+            long hits = 0;
+            for (int q = 0; q < queryCount; q++) {
+                long t = System.nanoTime();
+                int count = index.search(queries.getData(), queries.rowOffset(q), k, distances, found);
+                latency.record(System.nanoTime() - t);
+                long kth = exact[q][k - 1];
+                for (int i = 0; i < count; i++) {
+                    if (distances[i] <= kth) {
+                        hits++;
+                    }
+                }
+            }
+            System.out.println(String.format("%9d %10.4f %10.1f %10.1f %8.1fx", efSearch,
+                (double) hits / ((long) queryCount * k), latency.getMean() / 1e3,
+                latency.getValueAtPercentile(99) / 1e3, bruteLatency.getMean() / Math.max(1, latency.getMean())));
+        }
+    }
+
+    // k smallest squared distances from the query to any reference row, ascending
+    private static void bruteForce(DenseMatrix references, int[] query, int offset, int k, long[] nearest) {
+        int found = 0;
+        for (int i = 0; i < references.getRowCount(); i++) {
+            long bound = found < k ? Long.MAX_VALUE : nearest[k - 1];
+            long distance = references.squaredDistance(query, offset, i, bound);
+            if (found < k || distance < bound) {
+                int pos = found < k ? found++ : k - 1;
+                while (pos > 0 && nearest[pos - 1] > distance) {
+                    nearest[pos] = nearest[pos - 1];
+                    pos--;
+                }
+                nearest[pos] = distance;
+            }
+        }
+        for (int i = found; i < k; i++) {
+            nearest[i] = Long.MAX_VALUE;
+        }
+    }
+
+    // Rows scattered around 100 random centers with values in 0..255
+    private static DenseMatrix clusteredData(int rows, int dims, long seed) {
+        Random centerRandom = new Random(7);
+        int[][] centers = new int[100][dims];
+        for (int[] center : centers) {
+            for (int j = 0; j < dims; j++) {
+                center[j] = centerRandom.nextInt(256);
+            }
+        }
+        Random random = new Random(seed);
+        DenseMatrix matrix = new DenseMatrix(rows, dims);
+        for (int i = 0; i < rows; i++) {
+            int[] center = centers[random.nextInt(centers.length)];
+            for (int j = 0; j < dims; j++) {
+                int value = center[j] + (int) Math.round(random.nextGaussian() * 24);
+                matrix.set(i, j, Math.max(0, Math.min(255, value)));
+            }
+        }
+        return matrix;
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    // Builds the index inside a pool of the given size, so its parallel inserts use that many threads
+    private static HnswIndex build(DenseMatrix references, int m, int efConstruction, int threads) {
+        if (threads <= 1) {
+            return new HnswIndex(references, m, efConstruction, 10, false, 42);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> new HnswIndex(references, m, efConstruction, 10, true, 42)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the HNSW graph", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("HNSW build failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        return Integer.parseInt(option(args, name, String.valueOf(defaultValue)));
+    }
+
+    private static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
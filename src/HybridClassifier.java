@@ -12,28 +12,72 @@ public class HybridClassifier implements Classifier {
 
     @Override
     public void train(int[][] features, int[] labels) {
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
         nn.train(features, labels);
         fallback.train(features, labels);
     }
 
     @Override
     public int predict(int[] sample) {
-        // Compute nearest neighbor distance
-        double minDistance = Double.MAX_VALUE;
-        int predictedLabel = -1;
-        for (int i = 0; i < nn.getTrainingFeatures().length; i++) {
-            double dist = DistanceCalculator.euclideanDistance(sample, nn.getTrainingFeatures()[i]);
-            if (dist < minDistance) {
-                minDistance = dist;
-                predictedLabel = nn.getTrainingLabels()[i];
+        int label = nearestLabelWithinThreshold(sample, 0);
+        // Use fallback classifier if distance is high
+        return label != -1 ? label : fallback.predict(sample);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        int label = nearestLabelWithinThreshold(samples.getData(), samples.rowOffset(row));
+        return label != -1 ? label : fallback.predict(samples, row);
+    }
+
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    // One tiled nearest-neighbor pass over the batch, then a single fallback batch
+    // for just the samples whose nearest neighbor is beyond the threshold.
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int m = samples.getRowCount();
+        double[] distances = new double[m];
+        int[] predictions = new int[m];
+        nn.nearestBatch(samples, distances, predictions);
+
+        int[] far = new int[m];
+        int farCount = 0;
+        for (int i = 0; i < m; i++) {
+            if (distances[i] > distanceThreshold) {
+                far[farCount++] = i;
             }
         }
+        if (farCount > 0) {
+            far = java.util.Arrays.copyOf(far, farCount);
+            int[] fallbackPredictions = fallback.predictBatch(samples.selectRows(far));
+            for (int j = 0; j < farCount; j++) {
+                predictions[far[j]] = fallbackPredictions[j];
+            }
+        }
+        return predictions;
+    }
+
+    // Label of the nearest training sample, or -1 if it is farther than the threshold.
+    // One search through nn's backend (linear scan, KD-tree or shards); a linear scan abandons rows
+    // beyond the threshold early, so the fallback only runs when the threshold actually triggers.
+    private int nearestLabelWithinThreshold(int[] sample, int sampleOffset) {
+        return nn.nearestLabel(sample, sampleOffset, squaredThreshold(), null);
+    }
 
-        if (minDistance > distanceThreshold) {
-            // Use fallback classifier if distance is high
-            return fallback.predict(sample);
-        } else {
-            return predictedLabel;
+    // Largest integer squared distance that is still within the threshold
+    private long squaredThreshold() {
+        if (distanceThreshold < 0) {
+            return -1;
         }
+        double squared = Math.floor(distanceThreshold * distanceThreshold);
+        return squared >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) squared;
     }
 }
@@ -0,0 +1,77 @@
+public class InstrumentedClassifier implements Classifier {
+    // Wraps any classifier and records how long each train/predict call takes and how many bytes
+    // the calling thread allocated during it. Predictions are passed through unchanged.
+    private final Classifier delegate;
+    private final ClassifierMetrics metrics = new ClassifierMetrics();
+
+    public InstrumentedClassifier(Classifier delegate) {
+        this.delegate = delegate;
+    }
+
+    public Classifier getDelegate() {
+        return delegate;
+    }
+
+    public ClassifierMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void train(int[][] features, int[] labels) {
+        long allocatedBefore = ClassifierMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        delegate.train(features, labels);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordTrain(elapsed, ClassifierMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        long allocatedBefore = ClassifierMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        delegate.train(features, labels);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordTrain(elapsed, ClassifierMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+    }
+
+    @Override
+    public int predict(int[] sample) {
+        long allocatedBefore = ClassifierMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int prediction = delegate.predict(sample);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordPredict(elapsed, ClassifierMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+        return prediction;
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        long allocatedBefore = ClassifierMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int prediction = delegate.predict(samples, row);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordPredict(elapsed, ClassifierMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+        return prediction;
+    }
+
+    // Batches are recorded as a whole (throughput and bytes per sample), not in the latency histogram
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        long allocatedBefore = ClassifierMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int[] predictions = delegate.predictBatch(samples);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordBatch(samples.length, elapsed, ClassifierMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+        return predictions;
+    }
+
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        long allocatedBefore = ClassifierMetrics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int[] predictions = delegate.predictBatch(samples);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordBatch(samples.getRowCount(), elapsed, ClassifierMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+        return predictions;
+    }
+}
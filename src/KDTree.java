@@ -0,0 +1,292 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+public class KDTree implements NeighborSearch {
+    // Exact nearest-neighbor index over the rows of a FeatureStore.
+    // Each inner node splits its rows at the median of the dimension with the largest spread;
+    // rows end up in leaf buckets of at most leafSize rows that are scanned with the store's own
+    // distance kernel. Searches descend to the query's side first and only visit the other side
+    // when its cell can still hold a row within the current k-th best distance, using the
+    // incremental cell distance of Arya and Mount. Results match a brute-force scan exactly,
+    // including ties, which go to the lower row index.
+    public static final int DEFAULT_LEAF_SIZE = 32;
+
+    private final FeatureStore points;
+    private final int leafSize;
+    private final int[] order; // row indices; every node owns the range [start, end)
+
+    // Nodes in flat arrays; splitDim is -1 for leaves
+    private int[] splitDim;
+    private int[] splitValue;
+    private int[] left;
+    private int[] right;
+    private int[] start;
+    private int[] end;
+    private int nodeCount;
+    private final int root;
+
+    // Query statistics
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder nodesVisited = new LongAdder();
+    private final LongAdder distanceComputations = new LongAdder();
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+    public KDTree(FeatureStore points) {
+        this(points, DEFAULT_LEAF_SIZE);
+    }
+
+    public KDTree(FeatureStore points, int leafSize) {
+        this.points = points;
+        this.leafSize = Math.max(1, leafSize);
+        int n = points.getRowCount();
+        this.order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int capacity = Math.max(1, 4 * n / this.leafSize + 1);
+        splitDim = new int[capacity];
+        splitValue = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        start = new int[capacity];
+        end = new int[capacity];
+        this.root = build(0, n);
+    }
+
+    @Override
+    public FeatureStore getPoints() {
+        return points;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    // Row index of the nearest stored row, or -1 if the tree is empty
+    public int nearest(int[] query, int queryOffset) {
+        long[] distance = new long[1];
+        int[] row = new int[1];
+        return nearest(query, queryOffset, 1, distance, row) == 0 ? -1 : row[0];
+    }
+
+    // Fills squaredDistances/rows with the k nearest rows in ascending order and returns how many
+    // were found (fewer than k only when the tree holds fewer rows)
+    @Override
+    public int nearest(int[] query, int queryOffset, int k, long[] squaredDistances, int[] rows) {
+        if (k <= 0) {
+            return 0;
+        }
+        return run(new Search(query, queryOffset, k, squaredDistances, rows, points.getColumnCount()));
+    }
+
+    // Starts the search with maxSquaredDistance as its bound, so cells beyond it are never visited
+    @Override
+    public int nearestWithin(int[] query, int queryOffset, long maxSquaredDistance, long[] squaredDistance) {
+        long[] distance = new long[1];
+        int[] row = new int[1];
+        Search search = new Search(query, queryOffset, 1, distance, row, points.getColumnCount());
+        search.limit = maxSquaredDistance;
+        if (run(search) == 0) {
+            return -1;
+        }
+        if (squaredDistance != null) {
+            squaredDistance[0] = distance[0];
+        }
+        return row[0];
+    }
+
+    private int run(Search search) {
+        long startTime = System.nanoTime();
+        if (order.length > 0) {
+            search(root, search, 0);
+        }
+        queryLatency.record(System.nanoTime() - startTime);
+        queryCount.increment();
+        nodesVisited.add(search.nodes);
+        distanceComputations.add(search.scanned);
+        return search.count;
+    }
+
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    public double getAverageNodesVisited() {
+        long queries = queryCount.sum();
+        return queries == 0 ? 0 : (double) nodesVisited.sum() / queries;
+    }
+
+    // Rows whose distance was (at least partly) computed per query; the row count for a full scan
+    public double getAverageDistanceComputations() {
+        long queries = queryCount.sum();
+        return queries == 0 ? 0 : (double) distanceComputations.sum() / queries;
+    }
+
+    // Query latency in nanoseconds
+    public LatencyHistogram getQueryLatency() {
+        return queryLatency;
+    }
+
+    private void search(int node, Search s, long cellDistance) {
+        s.nodes++;
+        int dim = splitDim[node];
+        if (dim < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                int row = order[i];
+                long distance = points.squaredDistance(s.query, s.queryOffset, row, s.bound());
+                s.scanned++;
+                s.offer(distance, row);
+            }
+            return;
+        }
+
+        long diff = (long) s.query[s.queryOffset + dim] - splitValue[node];
+        int near = diff < 0 ? left[node] : right[node];
+        int far = diff < 0 ? right[node] : left[node];
+        search(near, s, cellDistance);
+
+        // The far cell is at least |diff| away along dim; equal distances are still visited for ties
+        long previous = s.offsets[dim];
+        long farDistance = cellDistance - previous * previous + diff * diff;
+        if (farDistance <= s.bound()) {
+            s.offsets[dim] = diff;
+            search(far, s, farDistance);
+            s.offsets[dim] = previous;
+        }
+    }
+
+    private int build(int from, int to) {
+        int node = newNode(from, to);
+        if (to - from <= leafSize) {
+            return node;
+        }
+
+        // Split on the dimension with the largest spread
+        int bestDim = -1;
+        int bestSpread = 0;
+        for (int dim = 0; dim < points.getColumnCount(); dim++) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                int value = points.get(order[i], dim);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                bestDim = dim;
+            }
+        }
+        if (bestDim < 0) {
+            return node; // all rows identical: keep them in one leaf
+        }
+
+        int mid = (from + to) >>> 1;
+        select(from, to, mid, bestDim);
+        int split = points.get(order[mid], bestDim); // read before the children reorder their ranges
+        int leftChild = build(from, mid);
+        int rightChild = build(mid, to);
+        splitDim[node] = bestDim;
+        splitValue[node] = split;
+        left[node] = leftChild;
+        right[node] = rightChild;
+        return node;
+    }
+
+    private int newNode(int from, int to) {
+        if (nodeCount == splitDim.length) {
+            int capacity = 2 * nodeCount;
+            splitDim = Arrays.copyOf(splitDim, capacity);
+            splitValue = Arrays.copyOf(splitValue, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+        }
+        int node = nodeCount++;
+        splitDim[node] = -1;
+        start[node] = from;
+        end[node] = to;
+        return node;
+    }
+
+    // Reorders order[from, to) so that position nth holds the row with the nth smallest value in dim,
+    // rows before it have values <= it and rows after it values >= it
+    private void select(int from, int to, int nth, int dim) {
+        int lo = from;
+        int hi = to - 1;
+        while (hi > lo) {
+            int pivot = points.get(order[(lo + hi) >>> 1], dim);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (points.get(order[i], dim) < pivot) i++;
+                while (points.get(order[j], dim) > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (nth <= j) {
+                hi = j;
+            } else if (nth >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+    }
+
+    // Per-query state: the k best (distance, row) pairs in ascending order and the cell offsets.
+    // Rows farther than limit are never kept.
+    private static final class Search {
+        final int[] query;
+        final int queryOffset;
+        final int k;
+        final long[] distances;
+        final int[] rows;
+        final long[] offsets;
+        long limit = Long.MAX_VALUE;
+        int count;
+        long nodes;
+        long scanned;
+
+        Search(int[] query, int queryOffset, int k, long[] distances, int[] rows, int dims) {
+            this.query = query;
+            this.queryOffset = queryOffset;
+            this.k = k;
+            this.distances = distances;
+            this.rows = rows;
+            this.offsets = new long[dims];
+        }
+
+        long bound() {
+            return count < k ? limit : distances[k - 1];
+        }
+
+        void offer(long distance, int row) {
+            if (distance > limit || (count == k && !closer(distance, row, distances[k - 1], rows[k - 1]))) {
+                return;
+            }
+            int pos = count < k ? count++ : k - 1;
+            while (pos > 0 && closer(distance, row, distances[pos - 1], rows[pos - 1])) {
+                distances[pos] = distances[pos - 1];
+                rows[pos] = rows[pos - 1];
+                pos--;
+            }
+            distances[pos] = distance;
+            rows[pos] = row;
+        }
+
+        private static boolean closer(long distance, int row, long otherDistance, int otherRow) {
+            return distance < otherDistance || (distance == otherDistance && row < otherRow);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+public class LatencyHistogram {
+    // Log-linear histogram of non-negative values (nanoseconds), in the style of HdrHistogram.
+    // Every power-of-two range is split into the same number of linear sub-buckets, so the recorded
+    // value is kept to within 1/SUB_BUCKET_HALF (under 1%) relative error across the whole range,
+    // in a fixed-size array and without per-value allocation.
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int BUCKET_COUNT = 64 - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(BUCKET_COUNT + 1) * SUB_BUCKET_HALF];
+    private long totalCount;
+    private long totalValue;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+
+    public synchronized void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalValue += value;
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+    }
+
+    // Adds all values recorded by another histogram
+    public synchronized void add(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherTotal, otherSum, otherMin, otherMax;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherTotal = other.totalCount;
+            otherSum = other.totalValue;
+            otherMin = other.minValue;
+            otherMax = other.maxValue;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += otherCounts[i];
+        }
+        totalCount += otherTotal;
+        totalValue += otherSum;
+        minValue = Math.min(minValue, otherMin);
+        maxValue = Math.max(maxValue, otherMax);
+    }
+
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMin() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    public synchronized long getMax() {
+        return maxValue;
+    }
+
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    // Smallest recorded value that at least percentile% of the values are at or below
+    // (up to bucket precision), e.g. getValueAtPercentile(99.9) for p999
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double fraction = Math.min(Math.max(percentile, 0), 100) / 100;
+        long target = Math.max(1, (long) Math.ceil(fraction * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(Math.max(highestEquivalentValue(i), minValue), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    // Bucket magnitude is the power-of-two range the value falls into; the top SUB_BUCKET_BITS
+    // bits of the value pick the linear sub-bucket inside it.
+    private static int indexOf(long value) {
+        int magnitude = 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> magnitude);
+        return magnitude * SUB_BUCKET_HALF + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        int magnitude = index < SUB_BUCKET_COUNT ? 0 : index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) magnitude * SUB_BUCKET_HALF;
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+}
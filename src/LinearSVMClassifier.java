@@ -15,16 +15,21 @@ public class LinearSVMClassifier {
     }
 
     public void train(int[][] features, int[] labels) {
-        int n = features.length;
-        int d = features[0].length;
+        train(DenseMatrix.of(features), labels);
+    }
+
+    public void train(DenseMatrix features, int[] labels) {
+        int n = features.getRowCount();
+        int d = features.getColumnCount();
+        int[] data = features.getData();
 
         // Perform epochs of SGD
         for (int epoch = 0; epoch < epochs; epoch++) {
             for (int i = 0; i < n; i++) {
-                int[] x = features[i];
+                int x = features.rowOffset(i); // start of the sample in data
                 int y = labels[i]; // expected {+1,-1}
 
-                double linearOutput = dotProduct(weights, x) + bias;
+                double linearOutput = dotProduct(weights, data, x) + bias;
                 double yPred = y * linearOutput;
 
                 // Hinge loss condition
@@ -37,7 +42,7 @@ public class LinearSVMClassifier {
                 } else {
                     // Update weights and bias for misclassified sample
                     for (int j = 0; j < d; j++) {
-                        weights[j] -= learningRate * (2 * regularizationParam * weights[j] - y * x[j]);
+                        weights[j] -= learningRate * (2 * regularizationParam * weights[j] - y * data[x + j]);
                     }
                     // Update bias
                     bias -= learningRate * (-y);
@@ -47,19 +52,20 @@ public class LinearSVMClassifier {
     }
 
     public int predict(int[] sample) {
-        double linearOutput = dotProduct(weights, sample) + bias;
+        double linearOutput = dotProduct(weights, sample, 0) + bias;
         return linearOutput >= 0 ? 1 : -1;
     }
 
     public double decisionFunction(int[] sample) {
-        return dotProduct(weights, sample) + bias;
+        return dotProduct(weights, sample, 0) + bias;
     }
 
-    private double dotProduct(double[] w, int[] x) {
-        double result = 0.0;
-        for (int i = 0; i < w.length; i++) {
-            result += w[i] * x[i];
-        }
-        return result;
+    // Decision function for a sample stored at offset inside a larger array (e.g. a DenseMatrix row)
+    public double decisionFunction(int[] data, int offset) {
+        return dotProduct(weights, data, offset) + bias;
+    }
+
+    private double dotProduct(double[] w, int[] x, int offset) {
+        return DistanceCalculator.dot(w, x, offset);
     }
 }
@@ -0,0 +1,47 @@
+public class LinearSearch implements NeighborSearch {
+    // Exact search by scanning every row. Each distance is abandoned early once it is beyond the
+    // current k-th best (or beyond maxSquaredDistance in nearestWithin), so a tight bound makes the
+    // scan cheaper even though every row is visited.
+    private final FeatureStore points;
+
+    public LinearSearch(FeatureStore points) {
+        this.points = points;
+    }
+
+    @Override
+    public FeatureStore getPoints() {
+        return points;
+    }
+
+    @Override
+    public int nearest(int[] query, int queryOffset, int k, long[] squaredDistances, int[] rows) {
+        int count = 0;
+        for (int i = 0; i < points.getRowCount() && k > 0; i++) {
+            long bound = count < k ? Long.MAX_VALUE : squaredDistances[0];
+            long distance = points.squaredDistance(query, queryOffset, i, bound);
+            if (count < k || distance < bound) {
+                count = NeighborHeap.offer(squaredDistances, rows, count, k, distance, i);
+            }
+        }
+        NeighborHeap.sortAscending(squaredDistances, rows, count);
+        return count;
+    }
+
+    @Override
+    public int nearestWithin(int[] query, int queryOffset, long maxSquaredDistance, long[] squaredDistance) {
+        long bound = maxSquaredDistance;
+        int nearest = -1;
+        for (int i = 0; i < points.getRowCount(); i++) {
+            long distance = points.squaredDistance(query, queryOffset, i, bound);
+            // A row exactly at maxSquaredDistance still qualifies, but only while nothing nearer was found
+            if (distance < bound || (distance == bound && nearest == -1)) {
+                bound = distance;
+                nearest = i;
+            }
+        }
+        if (nearest != -1 && squaredDistance != null) {
+            squaredDistance[0] = bound;
+        }
+        return nearest;
+    }
+}
@@ -5,34 +5,55 @@ public class MLPClassifier implements Classifier {
     private int inputSize;
     private int hiddenSize;
     private int outputSize;
+    // Each weight matrix is kept as one contiguous row per vector that a pass streams through. W1 is
+    // stored by input: W1[j][h] is the weight from input j to hidden unit h, so the hidden layer is
+    // built, and updated, by walking the rows of the non-zero inputs. W2 is stored by output:
+    // W2[o][h] is the weight from hidden unit h to output o.
     private double[][] W1; // input -> hidden
     private double[] b1;
     private double[][] W2; // hidden -> output
     private double[] b2;
     private double learningRate;
     private int epochs;
+    private int batchSize; // samples per weight update; 1 is plain per-sample SGD
+    private boolean shuffle; // visit the samples in a new random order every epoch
+    private final java.util.Random random = new java.util.Random();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final int BATCH_BLOCK = 32; // samples per block in predictBatch
 
     public MLPClassifier(int inputSize, int hiddenSize, int outputSize, double learningRate, int epochs) {
+        this(inputSize, hiddenSize, outputSize, learningRate, epochs, 1, false);
+    }
+
+    // Mini-batch mode: with batchSize > 1 the forward and backward passes run over batchSize samples
+    // at a time as matrix-matrix products, and the weights are updated once per batch with the summed
+    // gradient (so learningRate keeps its per-sample meaning; large batches may need a smaller one).
+    // shuffle reorders the samples every epoch.
+    public MLPClassifier(int inputSize, int hiddenSize, int outputSize, double learningRate, int epochs,
+                         int batchSize, boolean shuffle) {
         this.inputSize = inputSize;
         this.hiddenSize = hiddenSize;
         this.outputSize = outputSize;
         this.learningRate = learningRate;
         this.epochs = epochs;
+        this.batchSize = Math.max(1, batchSize);
+        this.shuffle = shuffle;
         initWeights();
     }
 
     // Initialize all weights and biases with small random values.
     private void initWeights() {
-        W1 = new double[hiddenSize][inputSize];
+        W1 = new double[inputSize][hiddenSize];
         b1 = new double[hiddenSize];
         W2 = new double[outputSize][hiddenSize];
         b2 = new double[outputSize];
 
-        // Initialize weights with small random values
+        // Initialize weights with small random values, drawn hidden unit by hidden unit
         java.util.Random rand = new java.util.Random();
         for (int i = 0; i < hiddenSize; i++) {
             for (int j = 0; j < inputSize; j++) {
-                W1[i][j] = rand.nextGaussian() * 0.01;
+                W1[j][i] = rand.nextGaussian() * 0.01;
             }
         }
         for (int i = 0; i < outputSize; i++) {
@@ -44,123 +65,317 @@ public class MLPClassifier implements Classifier {
 
     @Override
     public void train(int[][] features, int[] labels) {
-        int n = features.length;
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        int n = features.getRowCount();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        if (batchSize > 1) {
+            trainMiniBatches(features, labels, order);
+            return;
+        }
+        int[] data = features.getData();
+        // Buffers for one sample, reused by every step, so training allocates nothing per sample
+        double[] h = new double[hiddenSize];
+        double[] o = new double[outputSize];
+        double[] deltaO = new double[outputSize];
+        double[] deltaH = new double[hiddenSize];
         // For multiple epochs, run through all samples and update weights via backpropagation.
         for (int epoch = 0; epoch < epochs; epoch++) {
+            if (shuffle) {
+                shuffle(order);
+            }
             for (int i = 0; i < n; i++) {
-                double[] x = toDouble(features[i]);
-                int y = labels[i];
+                trainStep(data, features.rowOffset(order[i]), labels[order[i]], h, o, deltaO, deltaH);
+            }
+        }
+    }
 
-                // Forward pass: input -> hidden
-                double[] h = new double[hiddenSize];
-                for (int hh = 0; hh < hiddenSize; hh++) {
-                    double sum = b1[hh];
-                    for (int jj = 0; jj < inputSize; jj++) {
-                        sum += W1[hh][jj] * x[jj];
-                    }
-                    h[hh] = relu(sum);
-                }
-                // Forward pass: hidden -> output
-                double[] o = new double[outputSize];
-                for (int oo = 0; oo < outputSize; oo++) {
-                    double sum = b2[oo];
-                    for (int hh2 = 0; hh2 < hiddenSize; hh2++) {
-                        sum += W2[oo][hh2] * h[hh2];
-                    }
-                    o[oo] = sum;
-                }
+    // Mini-batch training. Per batch, with X holding the batch's inputs as rows:
+    //   H = relu(X W1 + b1), O = H W2^T + b2, dO = softmax(O) - Y, dH = (dO W2) * relu'(H)
+    //   W2 -= lr * dO^T H, W1 -= lr * X^T dH (biases with the column sums of dO and dH)
+    // The forward pass runs the same kernels as a single sample. The gradient products accumulate
+    // one weight row over the batch and apply it right away, so no gradient matrix is kept; for W1
+    // that is the row of one input, built from the samples where that input is non-zero.
+    private void trainMiniBatches(DenseMatrix features, int[] labels, int[] order) {
+        int n = features.getRowCount();
+        MiniBatch batch = new MiniBatch(Math.max(1, Math.min(batchSize, n)));
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            if (shuffle) {
+                shuffle(order);
+            }
+            for (int start = 0; start < n; start += batch.capacity) {
+                trainBatch(batch, features, labels, order, start, Math.min(batch.capacity, n - start));
+            }
+        }
+    }
 
-                double[] probs = softmax(o);
+    // One update from the samples order[start, start + size); kept out of the epoch loop so the JIT
+    // compiles it as a method of its own rather than only through on-stack replacement of that loop
+    private void trainBatch(MiniBatch batch, DenseMatrix features, int[] labels, int[] order, int start, int size) {
+        int[] data = features.getData();
+        int[] offsets = batch.offsets;
+        double[][] h = batch.h;
+        double[][] deltaO = batch.deltaO;
+        double[][] deltaH = batch.deltaH;
+        double[] gradient = batch.gradient;
 
-                // Compute output layer delta: deltaO = probs - one_hot(y)
-                double[] deltaO = new double[outputSize];
-                for (int oo = 0; oo < outputSize; oo++) {
-                    deltaO[oo] = probs[oo];
-                }
-                deltaO[y] -= 1.0;
-
-                // Compute gradients for W2 and b2
-                double[][] gradW2 = new double[outputSize][hiddenSize];
-                double[] gradb2 = new double[outputSize];
-                for (int oo = 0; oo < outputSize; oo++) {
-                    for (int hh2 = 0; hh2 < hiddenSize; hh2++) {
-                        gradW2[oo][hh2] = deltaO[oo] * h[hh2];
-                    }
-                    gradb2[oo] = deltaO[oo];
-                }
+        // H = relu(X W1 + b1), O = H W2^T + b2
+        for (int s = 0; s < size; s++) {
+            offsets[s] = features.rowOffset(order[start + s]);
+            hiddenLayer(data, offsets[s], h[s]);
+            outputLayer(h[s], deltaO[s]);
+        }
 
-                // Compute delta for hidden layer: deltaH
-                double[] deltaH = new double[hiddenSize];
-                for (int hh2 = 0; hh2 < hiddenSize; hh2++) {
-                    double sum = 0.0;
-                    for (int oo = 0; oo < outputSize; oo++) {
-                        sum += deltaO[oo] * W2[oo][hh2];
-                    }
-                    // ReLU derivative: pass gradient if h>0, else 0
-                    deltaH[hh2] = (h[hh2] > 0 ? sum : 0); // derivative of ReLU
+        // dO = softmax(O) - Y, and dH = (dO W2) * relu'(H) while W2 is still unchanged
+        for (int s = 0; s < size; s++) {
+            double[] d = deltaO[s];
+            softmax(d, d);
+            d[labels[order[start + s]]] -= 1.0;
+            double[] dh = deltaH[s];
+            java.util.Arrays.fill(dh, 0.0);
+            for (int oo = 0; oo < outputSize; oo++) {
+                double[] w = W2[oo];
+                double dOut = d[oo];
+                for (int hh = 0; hh < hiddenSize; hh++) {
+                    dh[hh] += dOut * w[hh];
                 }
+            }
+            double[] hs = h[s];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                if (hs[hh] <= 0) dh[hh] = 0;
+            }
+        }
 
-                // Compute gradients for W1 and b1
-                double[][] gradW1 = new double[hiddenSize][inputSize];
-                double[] gradb1 = new double[hiddenSize];
-                for (int hh2 = 0; hh2 < hiddenSize; hh2++) {
-                    for (int jj = 0; jj < inputSize; jj++) {
-                        gradW1[hh2][jj] = deltaH[hh2] * x[jj];
-                    }
-                    gradb1[hh2] = deltaH[hh2];
+        // W2 -= lr * dO^T H, one output row at a time
+        for (int oo = 0; oo < outputSize; oo++) {
+            java.util.Arrays.fill(gradient, 0.0);
+            double biasGradient = 0;
+            for (int s = 0; s < size; s++) {
+                double d = deltaO[s][oo];
+                double[] hs = h[s];
+                for (int hh = 0; hh < hiddenSize; hh++) {
+                    gradient[hh] += d * hs[hh];
                 }
+                biasGradient += d;
+            }
+            double[] w = W2[oo];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                w[hh] -= learningRate * gradient[hh];
+            }
+            b2[oo] -= learningRate * biasGradient;
+        }
 
-                // Update all weights and biases
-                for (int hh2 = 0; hh2 < hiddenSize; hh2++) {
-                    for (int jj = 0; jj < inputSize; jj++) {
-                        W1[hh2][jj] -= learningRate * gradW1[hh2][jj];
-                    }
-                    b1[hh2] -= learningRate * gradb1[hh2];
-                }
+        // b1 -= lr * column sums of dH
+        java.util.Arrays.fill(gradient, 0.0);
+        for (int s = 0; s < size; s++) {
+            double[] dh = deltaH[s];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                gradient[hh] += dh[hh];
+            }
+        }
+        for (int hh = 0; hh < hiddenSize; hh++) {
+            b1[hh] -= learningRate * gradient[hh];
+        }
 
-                for (int oo = 0; oo < outputSize; oo++) {
-                    for (int hh2 = 0; hh2 < hiddenSize; hh2++) {
-                        W2[oo][hh2] -= learningRate * gradW2[oo][hh2];
-                    }
-                    b2[oo] -= learningRate * gradb2[oo];
+        // W1 -= lr * X^T dH, one input row at a time; samples where the input is zero add nothing,
+        // and an input that is zero in the whole batch leaves its row unchanged
+        for (int jj = 0; jj < inputSize; jj++) {
+            java.util.Arrays.fill(gradient, 0.0);
+            boolean active = false;
+            for (int s = 0; s < size; s++) {
+                double a = data[offsets[s] + jj];
+                if (a == 0) continue;
+                active = true;
+                double[] dh = deltaH[s];
+                for (int hh = 0; hh < hiddenSize; hh++) {
+                    gradient[hh] += a * dh[hh];
                 }
             }
+            if (!active) continue;
+            double[] w = W1[jj];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                w[hh] -= learningRate * gradient[hh];
+            }
         }
     }
 
-    @Override
-    public int predict(int[] sample) {
-        double[] x = toDouble(sample);
-        // Single forward pass for prediction
+    // Buffers of the mini-batch path, allocated once per train call
+    private final class MiniBatch {
+        final int capacity;
+        final int[] offsets; // where each sample of the batch starts in the feature data
+        final double[][] h;
+        final double[][] deltaO; // output scores, then their deltas
+        final double[][] deltaH;
+        final double[] gradient = new double[hiddenSize];
 
-        double[] h = new double[hiddenSize];
+        MiniBatch(int capacity) {
+            this.capacity = capacity;
+            offsets = new int[capacity];
+            h = new double[capacity][hiddenSize];
+            deltaO = new double[capacity][outputSize];
+            deltaH = new double[capacity][hiddenSize];
+        }
+    }
+
+    // Fisher-Yates shuffle of the sample order
+    private void shuffle(int[] order) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    // One SGD step on the sample at data[offset]. Each gradient is applied to its weight as soon as
+    // it is computed instead of being collected in gradient matrices first; the arithmetic and its
+    // order are unchanged, so the weights come out exactly as with separate gradients.
+    private void trainStep(int[] data, int offset, int y, double[] h, double[] o, double[] deltaO, double[] deltaH) {
+        hiddenLayer(data, offset, h);
+        outputLayer(h, o);
+
+        // Output layer delta: deltaO = softmax(o) - one_hot(y)
+        softmax(o, deltaO);
+        deltaO[y] -= 1.0;
+
+        // Hidden delta and W2/b2 update in one sweep over W2: each weight is read for deltaH before
+        // it is updated, and deltaH still sums over the outputs in order
+        java.util.Arrays.fill(deltaH, 0.0);
+        for (int oo = 0; oo < outputSize; oo++) {
+            double[] w = W2[oo];
+            double d = deltaO[oo];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                deltaH[hh] += d * w[hh];
+                w[hh] -= learningRate * (d * h[hh]);
+            }
+            b2[oo] -= learningRate * d;
+        }
+
+        // ReLU derivative, then the W1/b1 update over the rows of the non-zero inputs, the same rows
+        // the forward pass read; zero inputs and inactive hidden units leave their weights unchanged
         for (int hh = 0; hh < hiddenSize; hh++) {
-            double sum = b1[hh];
-            for (int jj = 0; jj < inputSize; jj++) {
-                sum += W1[hh][jj] * x[jj];
+            if (h[hh] <= 0) deltaH[hh] = 0;
+        }
+        for (int jj = 0; jj < inputSize; jj++) {
+            double a = data[offset + jj];
+            if (a == 0) continue;
+            double[] w = W1[jj];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                w[hh] -= learningRate * (deltaH[hh] * a);
             }
-            h[hh] = relu(sum);
         }
+        for (int hh = 0; hh < hiddenSize; hh++) {
+            b1[hh] -= learningRate * deltaH[hh];
+        }
+    }
 
-        double[] o = new double[outputSize];
+    // Hidden layer for the input at data[offset]: the bias, then the W1 row of every non-zero input
+    // added in one pass over h (zero pixels add nothing), then ReLU. Each unit still sums its inputs
+    // in index order, as a dot product would, so the result is the same to the last bit.
+    private void hiddenLayer(int[] data, int offset, double[] h) {
+        System.arraycopy(b1, 0, h, 0, hiddenSize);
+        for (int jj = 0; jj < inputSize; jj++) {
+            double a = data[offset + jj];
+            if (a == 0) continue;
+            double[] w = W1[jj];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                h[hh] += a * w[hh];
+            }
+        }
+        for (int hh = 0; hh < hiddenSize; hh++) {
+            h[hh] = relu(h[hh]);
+        }
+    }
+
+    // Output scores o = b2 + W2 h: one dot product per output over its W2 row
+    private void outputLayer(double[] h, double[] o) {
         for (int oo = 0; oo < outputSize; oo++) {
+            double[] w = W2[oo];
             double sum = b2[oo];
-            for (int hh2 = 0; hh2 < hiddenSize; hh2++) {
-                sum += W2[oo][hh2] * h[hh2];
+            for (int hh = 0; hh < hiddenSize; hh++) {
+                sum += w[hh] * h[hh];
             }
             o[oo] = sum;
         }
-        // The predicted class is the argmax of the output scores (before softmax)
+    }
 
-        int pred = argMax(o);
-        return pred;
+    @Override
+    public int predict(int[] sample) {
+        return predictAt(sample, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    // Single forward pass for prediction, in this thread's buffers; the predicted class is the
+    // argmax of the output scores (before softmax)
+    private int predictAt(int[] data, int offset) {
+        Scratch buffers = scratch.get();
+        hiddenLayer(data, offset, buffers.h);
+        outputLayer(buffers.h, buffers.o);
+        return argMax(buffers.o);
+    }
+
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    // Forward pass over blocks of samples as matrix-matrix products: each W1 row is loaded once per
+    // block and added to every sample in it whose input is non-zero, instead of once per sample.
+    // The arithmetic per sample is that of predict.
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int n = samples.getRowCount();
+        int[] data = samples.getData();
+        int[] predictions = new int[n];
+        double[][] h = new double[BATCH_BLOCK][hiddenSize];
+        double[] o = new double[outputSize];
+
+        for (int start = 0; start < n; start += BATCH_BLOCK) {
+            int block = Math.min(BATCH_BLOCK, n - start);
+
+            // H = relu(X * W1 + b1)
+            for (int s = 0; s < block; s++) {
+                System.arraycopy(b1, 0, h[s], 0, hiddenSize);
+            }
+            for (int jj = 0; jj < inputSize; jj++) {
+                double[] w = W1[jj];
+                for (int s = 0; s < block; s++) {
+                    double a = data[samples.rowOffset(start + s) + jj];
+                    if (a == 0) continue;
+                    double[] hs = h[s];
+                    for (int hh = 0; hh < hiddenSize; hh++) {
+                        hs[hh] += a * w[hh];
+                    }
+                }
+            }
+
+            // O = H * W2^T + b2, sample by sample while W2 stays in cache
+            for (int s = 0; s < block; s++) {
+                double[] hs = h[s];
+                for (int hh = 0; hh < hiddenSize; hh++) {
+                    hs[hh] = relu(hs[hh]);
+                }
+                outputLayer(hs, o);
+                predictions[start + s] = argMax(o);
+            }
+        }
+        return predictions;
     }
 
-    // Convert int array to double array for calculations
-    private double[] toDouble(int[] arr) {
-        double[] res = new double[arr.length];
-        for (int i = 0; i < arr.length; i++) res[i] = arr[i];
-        return res;
+    // Per-thread buffers reused by every predict call on this classifier
+    private final class Scratch {
+        final double[] h = new double[hiddenSize];
+        final double[] o = new double[outputSize];
     }
 
     // ReLU activation function
@@ -168,8 +383,8 @@ public class MLPClassifier implements Classifier {
         return x > 0 ? x : 0;
     }
 
-    // Softmax normalization for probability outputs
-    private double[] softmax(double[] x) {
+    // Softmax normalization for probability outputs, written to out
+    private void softmax(double[] x, double[] out) {
         double max = Double.NEGATIVE_INFINITY;
         for (double v : x) {
             if (v > max) max = v;
@@ -178,11 +393,9 @@ public class MLPClassifier implements Classifier {
         for (double v : x) {
             sum += Math.exp(v - max);
         }
-        double[] out = new double[x.length];
         for (int i = 0; i < x.length; i++) {
             out[i] = Math.exp(x[i] - max) / sum;
         }
-        return out;
     }
 
     // Find index of maximum value in array (for class prediction)
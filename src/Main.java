@@ -7,30 +7,54 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 
 public class Main {
     private static final String RESULTS_DIR = "results";
+    private static final String[] DATASET_FILES = {"datasets/dataSet1.csv", "datasets/dataSet2.csv"};
+    private static Dataset dataset;
     private static PrintWriter resultWriter;
     private static List<ExperimentResult> allResults = new ArrayList<>();
+    private static ExperimentScheduler scheduler;
+    private static List<ScheduledExperiment> scheduledExperiments = new ArrayList<>();
+    private static List<String> pendingSectionHeaders = new ArrayList<>();
+    private static ResultsFile structuredResults = new ResultsFile();
+    private static final int DEFAULT_LATENCY_ROWS = 200;
+    private static int latencyRows = DEFAULT_LATENCY_ROWS; // test rows per fold timed one at a time
     
     static class ExperimentResult {
         String name;
         double avgAccuracy;
         long avgTrainingTime;
         long avgEvaluationTime;
+        ClassifierMetrics metrics; // combined over all folds, or null if not instrumented
         
-        ExperimentResult(String name, double avgAccuracy, long avgTrainingTime, long avgEvaluationTime) {
+        ExperimentResult(String name, double avgAccuracy, long avgTrainingTime, long avgEvaluationTime, ClassifierMetrics metrics) {
             this.name = name;
             this.avgAccuracy = avgAccuracy;
             this.avgTrainingTime = avgTrainingTime;
             this.avgEvaluationTime = avgEvaluationTime;
+            this.metrics = metrics;
         }
     }
     
+    static class ScheduledExperiment {
+        List<String> sectionHeaders; // section banners printed before this experiment
+        String title;
+        ExperimentScheduler.Experiment experiment;
+    }
+    
     public static void main(String[] args) {
+        // Number of (experiment, fold) tasks run at once: --parallelism N, or -Dexperiments.parallelism=N
+        int parallelism = parseParallelism(args);
+        // Optional run-over-run check: --baseline <csv> [--threshold pct] [--accuracy-threshold points]
+        String baselineFile = option(args, "--baseline");
+        // Single-sample latency is measured on --latency-rows test rows per fold (0 turns it off)
+        latencyRows = Math.max(0, intOption(args, "--latency-rows", DEFAULT_LATENCY_ROWS));
         createResultsDirectory();
         String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
         String resultFile = RESULTS_DIR + "/experiment_results_" + timestamp + ".txt";
+        String csvFile = RESULTS_DIR + "/experiment_results_" + timestamp + ".csv";
         
         try {
             resultWriter = new PrintWriter(new FileWriter(resultFile));
@@ -40,6 +64,8 @@ public class Main {
             System.out.println("==============================================");
             System.out.println("Dataset: Handwritten Digit Recognition (8x8)");
             System.out.println("Evaluation: 2-Fold Cross Validation");
+            System.out.println("Parallelism: " + parallelism);
+            System.out.println("Distance kernels: " + DistanceCalculator.getKernels().getName());
             System.out.println("Results saved to: " + resultFile);
             System.out.println("==============================================\n");
             
@@ -48,26 +74,121 @@ public class Main {
             printAndLog("==============================================");
             printAndLog("Dataset: Handwritten Digit Recognition (8x8)");
             printAndLog("Evaluation: 2-Fold Cross Validation");
+            printAndLog("Parallelism: " + parallelism);
+            printAndLog("Distance kernels: " + DistanceCalculator.getKernels().getName());
             printAndLog("Date: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
             printAndLog("==============================================\n");
             
-            // Run all experiments
+            // Load and split the data once; every experiment shares the same folds
+            dataset = Dataset.load(DATASET_FILES);
+            
+            // Queue all experiments, then report them in order as their folds finish
+            scheduler = new ExperimentScheduler(parallelism);
             runNearestNeighborExperiment();
             runKNNExperiments();
             runNeuralNetworkExperiments();
             runSVMExperiments();
             runTreeBasedExperiments();
             runEnsembleExperiments();
+            reportExperiments();
+            scheduler.shutdown();
             
             // Print summary
             printSummary();
+            structuredResults.write(csvFile);
+            if (baselineFile != null) {
+                compareWithBaseline(baselineFile, args);
+            }
             
             resultWriter.close();
             System.out.println("\nResults saved to: " + resultFile);
+            System.out.println("Structured results saved to: " + csvFile);
             
         } catch (IOException e) {
             System.err.println("Error writing results: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while waiting for experiments");
+        }
+    }
+    
+    private static int parseParallelism(String[] args) {
+        int parallelism = Integer.getInteger("experiments.parallelism", Runtime.getRuntime().availableProcessors());
+        String value = option(args, "--parallelism");
+        if (value != null) {
+            try {
+                parallelism = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid parallelism: " + value);
+            }
+        }
+        return Math.max(1, parallelism);
+    }
+    
+    // Value following the given flag, or null if the flag is absent
+    private static String option(String[] args, String name) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+    
+    private static int intOption(String[] args, String name, int defaultValue) {
+        String value = option(args, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    private static double doubleOption(String[] args, String name, double defaultValue) {
+        String value = option(args, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    private static void compareWithBaseline(String baselineFile, String[] args) {
+        double timeThreshold = doubleOption(args, "--threshold", ResultsComparison.DEFAULT_TIME_THRESHOLD);
+        double accuracyThreshold = doubleOption(args, "--accuracy-threshold", ResultsComparison.DEFAULT_ACCURACY_THRESHOLD);
+        
+        printAndLog("\n==============================================");
+        printAndLog("          COMPARISON WITH BASELINE            ");
+        printAndLog("==============================================");
+        printAndLog("Baseline: " + baselineFile);
+        printAndLog(String.format("Thresholds: %.1f%% for timings, %.2f points for accuracy", timeThreshold, accuracyThreshold));
+        try {
+            List<String> notes = new ArrayList<>();
+            List<String> regressions = new ResultsComparison(timeThreshold, accuracyThreshold)
+                .compare(ResultsFile.read(baselineFile), structuredResults, notes);
+            for (String note : notes) {
+                printAndLog("Note: " + note);
+            }
+            if (regressions.isEmpty()) {
+                printAndLog("No regressions found.");
+            } else {
+                printAndLog("REGRESSIONS:");
+                for (String regression : regressions) {
+                    printAndLog("  " + regression);
+                }
+            }
+        } catch (IOException e) {
+            printAndLog("Could not read baseline: " + e.getMessage());
         }
+        printAndLog("==============================================");
     }
     
     private static void createResultsDirectory() {
@@ -77,6 +198,18 @@ public class Main {
         }
     }
     
+    private static double average(double[] values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return sum / values.length;
+    }
+    
+    private static long average(long[] values) {
+        long sum = 0;
+        for (long v : values) sum += v;
+        return sum / values.length;
+    }
+    
     private static void printAndLog(String message) {
         System.out.println(message);
         if (resultWriter != null) {
@@ -86,15 +219,28 @@ public class Main {
     }
     
     private static void runNearestNeighborExperiment() {
-        printAndLog("\n========== NEAREST NEIGHBOR CLASSIFIERS ==========");
+        section("\n========== NEAREST NEIGHBOR CLASSIFIERS ==========");
         
         // Basic Nearest Neighbor
         runExperiment("1-Nearest Neighbor", 
             (features, labels, numClasses) -> new NearestNeighborClassifier());
+        
+        // Same search over byte/nibble-packed reference vectors
+        runExperiment("1-Nearest Neighbor (packed)", 
+            (features, labels, numClasses) -> new NearestNeighborClassifier(true));
+        
+        // Same search answered by a KD-tree built at training time
+        runExperiment("1-Nearest Neighbor (KD-tree)", 
+            (features, labels, numClasses) -> new NearestNeighborClassifier(false, true));
+        
+        // Same search over the prototypes kept by Hart's condensing
+        runExperiment("1-Nearest Neighbor (condensed)", 
+            (features, labels, numClasses) -> new NearestNeighborClassifier(false, false, false,
+                new PrototypeSelection(false, true)));
     }
     
     private static void runKNNExperiments() {
-        printAndLog("\n========== K-NEAREST NEIGHBORS CLASSIFIERS ==========");
+        section("\n========== K-NEAREST NEIGHBORS CLASSIFIERS ==========");
         
         // Weighted k-NN with different k values
         int[] kValues = {3, 4, 5};
@@ -102,18 +248,45 @@ public class Main {
             runExperiment("Weighted " + k + "-NN", 
                 (features, labels, numClasses) -> new WeightedKNearestNeighborsClassifier(k, numClasses));
         }
+        
+        // Approximate neighbors from an HNSW graph (M=16, efConstruction=200, efSearch=50), built
+        // sequentially from a fixed seed so the accuracy is the same on every run
+        runExperiment("Weighted 3-NN (HNSW)", 
+            (features, labels, numClasses) -> new WeightedKNearestNeighborsClassifier(3, numClasses, 16, 200, 50, false));
+        
+        // Shortlist of 32 in a 16-dimensional PCA space, re-ranked with exact distances
+        runExperiment("Weighted 3-NN (PCA-16 shortlist)", 
+            (features, labels, numClasses) -> new ProjectedKNearestNeighborsClassifier(3, numClasses, 16, 32));
+        
+        // Training set edited (Wilson, 3 neighbors) and then condensed (Hart)
+        runExperiment("Weighted 3-NN (edited + condensed)", 
+            (features, labels, numClasses) -> new WeightedKNearestNeighborsClassifier(3, numClasses, false, false, false,
+                new PrototypeSelection(true, true)));
+        
+        // Incrementally filled reference store capped at 512 KB (oldest samples evicted first)
+        runExperiment("Weighted 3-NN (online, 512 KB cap)", 
+            (features, labels, numClasses) -> new OnlineKNearestNeighborsClassifier(3, numClasses, 512 * 1024, false));
+        
+        // Predictions cached by sample vector (LRU, 10000 entries): the latency pass starts from an
+        // empty cache and times a skewed stream in which a few test rows repeat often
+        runExperiment("Weighted 3-NN (cached)", 
+            (features, labels, numClasses) -> new CachingClassifier(new WeightedKNearestNeighborsClassifier(3, numClasses), 10000));
     }
     
     private static void runNeuralNetworkExperiments() {
-        printAndLog("\n========== NEURAL NETWORK CLASSIFIERS ==========");
+        section("\n========== NEURAL NETWORK CLASSIFIERS ==========");
         
         // Multi-layer Perceptron
         runExperiment("MLP (100 hidden units)", 
             (features, labels, numClasses) -> new MLPClassifier(features[0].length, 100, numClasses, 0.002, 100));
+        
+        // Same network trained on shuffled mini-batches of 32 with matrix-matrix passes
+        runExperiment("MLP (100 hidden, mini-batch 32)", 
+            (features, labels, numClasses) -> new MLPClassifier(features[0].length, 100, numClasses, 0.002, 100, 32, true));
     }
     
     private static void runSVMExperiments() {
-        printAndLog("\n========== SUPPORT VECTOR MACHINES ==========");
+        section("\n========== SUPPORT VECTOR MACHINES ==========");
         
         // Linear SVM
         runExperiment("Linear SVM", 
@@ -124,7 +297,7 @@ public class Main {
     }
     
     private static void runTreeBasedExperiments() {
-        printAndLog("\n========== TREE-BASED CLASSIFIERS ==========");
+        section("\n========== TREE-BASED CLASSIFIERS ==========");
         
         // Decision Tree
         runExperiment("Decision Tree", 
@@ -140,7 +313,7 @@ public class Main {
     }
     
     private static void runEnsembleExperiments() {
-        printAndLog("\n========== ENSEMBLE CLASSIFIERS ==========");
+        section("\n========== ENSEMBLE CLASSIFIERS ==========");
         
         // Voting Classifier
         runVotingClassifierExperiment();
@@ -149,61 +322,59 @@ public class Main {
         runHybridClassifierExperiment();
     }
     
+    // Section headers are held back and printed in front of the next experiment's report,
+    // so they stay in place even though the experiments run concurrently
+    private static void section(String header) {
+        pendingSectionHeaders.add(header);
+    }
+    
+    // Queues one task per fold on the scheduler; the report is printed later by reportExperiments
+    private static void schedule(String title, String summaryName, ExperimentScheduler.FoldTask task) {
+        ScheduledExperiment scheduled = new ScheduledExperiment();
+        scheduled.sectionHeaders = new ArrayList<>(pendingSectionHeaders);
+        scheduled.title = title;
+        scheduled.experiment = scheduler.submit(summaryName, dataset.getFoldCount(), task);
+        pendingSectionHeaders.clear();
+        scheduledExperiments.add(scheduled);
+    }
+    
     private static void runExperiment(String experimentName, ClassifierFactory factory) {
-        printAndLog("\n--- " + experimentName + " ---");
-        
-        // Load datasets
-        int[][] dataSet1 = DataLoader.loadData("datasets/dataSet1.csv");
-        int[][] dataSet2 = DataLoader.loadData("datasets/dataSet2.csv");
-        
-        int[][] features1 = Utils.extractFeatures(dataSet1);
-        int[] labels1 = Utils.extractLabels(dataSet1);
-        int[][] features2 = Utils.extractFeatures(dataSet2);
-        int[] labels2 = Utils.extractLabels(dataSet2);
-        
-        int numClasses = Utils.getMaxLabel(labels1, labels2) + 1;
-        double[] accuracies = new double[2];
-        long[] trainingTimes = new long[2];
-        long[] evaluationTimes = new long[2];
-        
-        // Two-fold cross-validation
-        for (int fold = 0; fold < 2; fold++) {
-            printAndLog("\nFold " + (fold + 1) + ":");
-            
-            int[][] trainFeatures, testFeatures;
-            int[] trainLabels, testLabels;
-            
-            if (fold == 0) {
-                trainFeatures = features1;
-                trainLabels = labels1;
-                testFeatures = features2;
-                testLabels = labels2;
-            } else {
-                trainFeatures = features2;
-                trainLabels = labels2;
-                testFeatures = features1;
-                testLabels = labels1;
-            }
+        int numClasses = dataset.getNumClasses();
+        
+        // Cross-validation over the shared folds
+        schedule(experimentName, experimentName, (fold, log) -> {
+            Dataset.Fold split = dataset.getFold(fold);
+            int[][] trainFeatures = split.getTrainFeatures();
+            int[] trainLabels = split.getTrainLabels();
+            DenseMatrix trainMatrix = split.getTrainMatrix();
+            int[][] testFeatures = split.getTestFeatures();
+            int[] testLabels = split.getTestLabels();
+            DenseMatrix testMatrix = split.getTestMatrix();
             
-            // Create classifier
-            Classifier classifier = factory.create(trainFeatures, trainLabels, numClasses);
+            // Create classifier; the wrapper records latency and allocation metrics
+            InstrumentedClassifier classifier = new InstrumentedClassifier(factory.create(trainFeatures, trainLabels, numClasses));
             
             // Train
-            printAndLog("  Training...");
+            log.add("  Training...");
             long startTime = System.currentTimeMillis();
-            classifier.train(trainFeatures, trainLabels);
+            classifier.train(trainMatrix, trainLabels);
             long endTime = System.currentTimeMillis();
-            trainingTimes[fold] = endTime - startTime;
-            printAndLog("  Training time: " + trainingTimes[fold] + " ms");
+            long trainingTime = endTime - startTime;
+            log.add("  Training time: " + trainingTime + " ms");
+            PrototypeSelection selection = prototypeSelectionOf(classifier.getDelegate());
+            if (selection != null) {
+                log.add("  " + selection.getSummary());
+            }
             
             // Evaluate
-            printAndLog("  Evaluating...");
+            log.add("  Evaluating...");
             int[][] confusionMatrix = new int[numClasses][numClasses];
             int correctPredictions = 0;
             
             startTime = System.currentTimeMillis();
+            int[] predictions = classifier.predictBatch(testMatrix);
             for (int i = 0; i < testFeatures.length; i++) {
-                int predicted = classifier.predict(testFeatures[i]);
+                int predicted = predictions[i];
                 int actual = testLabels[i];
                 if (predicted == actual) {
                     correctPredictions++;
@@ -211,60 +382,83 @@ public class Main {
                 confusionMatrix[actual][predicted]++;
             }
             endTime = System.currentTimeMillis();
-            evaluationTimes[fold] = endTime - startTime;
-            
-            accuracies[fold] = (double) correctPredictions / testFeatures.length * 100;
-            printAndLog("  Accuracy: " + String.format("%.2f%%", accuracies[fold]));
-            printAndLog("  Evaluation time: " + evaluationTimes[fold] + " ms");
+            long evaluationTime = endTime - startTime;
+            
+            double accuracy = (double) correctPredictions / testFeatures.length * 100;
+            log.add("  Accuracy: " + String.format("%.2f%%", accuracy));
+            log.add("  Evaluation time: " + evaluationTime + " ms");
+            
+            // Per-prediction latency from single-sample calls on a bounded set of test rows spread
+            // evenly over the fold, so the extra pass costs the same for every classifier
+            int timedRows = Math.min(latencyRows, testFeatures.length);
+            CachingClassifier cache = classifier.getDelegate() instanceof CachingClassifier
+                ? (CachingClassifier) classifier.getDelegate() : null;
+            if (cache != null) {
+                // The batch pass stored every test row, so replaying rows would only time hits. Start
+                // empty and draw rows with probability falling off by rank (the cube of a uniform
+                // draw), so popular rows repeat and the latency mixes hits with misses.
+                cache.clear();
+                cache.resetStatistics();
+                Random random = new Random(42);
+                for (int j = 0; j < timedRows; j++) {
+                    classifier.predict(testMatrix, (int) (testFeatures.length * Math.pow(random.nextDouble(), 3)));
+                }
+            } else {
+                for (int j = 0; j < timedRows; j++) {
+                    classifier.predict(testMatrix, (int) ((long) j * testFeatures.length / timedRows));
+                }
+            }
+            ClassifierMetrics metrics = classifier.getMetrics();
+            if (metrics.getPredictCount() > 0) {
+                log.add("  " + formatLatency(metrics.getPredictLatency()));
+            }
+            if (cache != null) {
+                log.add("  " + cache.getSummary());
+            }
+            if (ClassifierMetrics.isAllocationTrackingSupported()) {
+                log.add("  Allocated: " + formatBytes(metrics.getBytesPerTrain()) + " per train"
+                    + (metrics.getPredictCount() > 0 ? ", " + formatBytes(metrics.getBytesPerPredict()) + " per predict" : ""));
+            }
+            return new ExperimentScheduler.FoldResult(accuracy, trainingTime, evaluationTime, metrics);
+        });
+    }
+    
+    // The training-set reduction of an instance-based classifier, or null
+    private static PrototypeSelection prototypeSelectionOf(Classifier classifier) {
+        if (classifier instanceof NearestNeighborClassifier) {
+            return ((NearestNeighborClassifier) classifier).getPrototypeSelection();
         }
-        
-        // Calculate averages
-        double avgAccuracy = (accuracies[0] + accuracies[1]) / 2;
-        long avgTrainingTime = (trainingTimes[0] + trainingTimes[1]) / 2;
-        long avgEvaluationTime = (evaluationTimes[0] + evaluationTimes[1]) / 2;
-        
-        printAndLog("\nAverage Results:");
-        printAndLog("  Average Accuracy: " + String.format("%.2f%%", avgAccuracy));
-        printAndLog("  Average Training Time: " + avgTrainingTime + " ms");
-        printAndLog("  Average Evaluation Time: " + avgEvaluationTime + " ms");
-        
-        allResults.add(new ExperimentResult(experimentName, avgAccuracy, avgTrainingTime, avgEvaluationTime));
+        if (classifier instanceof WeightedKNearestNeighborsClassifier) {
+            return ((WeightedKNearestNeighborsClassifier) classifier).getPrototypeSelection();
+        }
+        return null;
+    }
+    
+    private static String formatLatency(LatencyHistogram latency) {
+        return String.format("Predict latency: p50=%.1f us, p90=%.1f us, p99=%.1f us, p999=%.1f us",
+            latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(90) / 1e3,
+            latency.getValueAtPercentile(99) / 1e3, latency.getValueAtPercentile(99.9) / 1e3);
+    }
+    
+    private static String formatBytes(double bytes) {
+        if (bytes >= 1 << 20) {
+            return String.format("%.1f MB", bytes / (1 << 20));
+        }
+        if (bytes >= 1 << 10) {
+            return String.format("%.1f KB", bytes / (1 << 10));
+        }
+        return String.format("%.0f B", bytes);
     }
     
     private static void runExperimentWithCentroidFeatures(String experimentName) {
-        printAndLog("\n--- " + experimentName + " ---");
+        int numClasses = dataset.getNumClasses();
         
-        // Load datasets
-        int[][] dataSet1 = DataLoader.loadData("datasets/dataSet1.csv");
-        int[][] dataSet2 = DataLoader.loadData("datasets/dataSet2.csv");
-        
-        int[][] features1 = Utils.extractFeatures(dataSet1);
-        int[] labels1 = Utils.extractLabels(dataSet1);
-        int[][] features2 = Utils.extractFeatures(dataSet2);
-        int[] labels2 = Utils.extractLabels(dataSet2);
-        
-        int numClasses = Utils.getMaxLabel(labels1, labels2) + 1;
-        double[] accuracies = new double[2];
-        long[] trainingTimes = new long[2];
-        long[] evaluationTimes = new long[2];
-        
-        for (int fold = 0; fold < 2; fold++) {
-            printAndLog("\nFold " + (fold + 1) + ":");
-            
-            int[][] trainFeatures, testFeatures;
-            int[] trainLabels, testLabels;
-            
-            if (fold == 0) {
-                trainFeatures = features1;
-                trainLabels = labels1;
-                testFeatures = features2;
-                testLabels = labels2;
-            } else {
-                trainFeatures = features2;
-                trainLabels = labels2;
-                testFeatures = features1;
-                testLabels = labels1;
-            }
+        schedule(experimentName, experimentName, (fold, log) -> {
+            Dataset.Fold split = dataset.getFold(fold);
+            int[][] trainFeatures = split.getTrainFeatures();
+            int[] trainLabels = split.getTrainLabels();
+            int[][] testFeatures = split.getTestFeatures();
+            int[] testLabels = split.getTestLabels();
             
             // Add centroid features
             double[][] centroids = Utils.computeCentroids(trainFeatures, trainLabels, numClasses);
@@ -275,79 +469,46 @@ public class Main {
             Classifier classifier = new MulticlassSVMClassifier(0.001, 0.01, 1000, trainFeatures[0].length, numClasses);
             
             // Train
-            printAndLog("  Training...");
+            log.add("  Training...");
             long startTime = System.currentTimeMillis();
             classifier.train(trainFeatures, trainLabels);
             long endTime = System.currentTimeMillis();
-            trainingTimes[fold] = endTime - startTime;
-            printAndLog("  Training time: " + trainingTimes[fold] + " ms");
+            long trainingTime = endTime - startTime;
+            log.add("  Training time: " + trainingTime + " ms");
             
             // Evaluate
-            printAndLog("  Evaluating...");
+            log.add("  Evaluating...");
             int correctPredictions = 0;
             
             startTime = System.currentTimeMillis();
+            int[] predictions = classifier.predictBatch(testFeatures);
             for (int i = 0; i < testFeatures.length; i++) {
-                int predicted = classifier.predict(testFeatures[i]);
+                int predicted = predictions[i];
                 if (predicted == testLabels[i]) {
                     correctPredictions++;
                 }
             }
             endTime = System.currentTimeMillis();
-            evaluationTimes[fold] = endTime - startTime;
+            long evaluationTime = endTime - startTime;
             
-            accuracies[fold] = (double) correctPredictions / testFeatures.length * 100;
-            printAndLog("  Accuracy: " + String.format("%.2f%%", accuracies[fold]));
-            printAndLog("  Evaluation time: " + evaluationTimes[fold] + " ms");
-        }
-        
-        // Calculate averages
-        double avgAccuracy = (accuracies[0] + accuracies[1]) / 2;
-        long avgTrainingTime = (trainingTimes[0] + trainingTimes[1]) / 2;
-        long avgEvaluationTime = (evaluationTimes[0] + evaluationTimes[1]) / 2;
-        
-        printAndLog("\nAverage Results:");
-        printAndLog("  Average Accuracy: " + String.format("%.2f%%", avgAccuracy));
-        printAndLog("  Average Training Time: " + avgTrainingTime + " ms");
-        printAndLog("  Average Evaluation Time: " + avgEvaluationTime + " ms");
-        
-        allResults.add(new ExperimentResult(experimentName, avgAccuracy, avgTrainingTime, avgEvaluationTime));
+            double accuracy = (double) correctPredictions / testFeatures.length * 100;
+            log.add("  Accuracy: " + String.format("%.2f%%", accuracy));
+            log.add("  Evaluation time: " + evaluationTime + " ms");
+            return new ExperimentScheduler.FoldResult(accuracy, trainingTime, evaluationTime);
+        });
     }
     
     private static void runVotingClassifierExperiment() {
-        printAndLog("\n--- Voting Classifier (NN + MLP + Weighted k-NN) ---");
-        
-        // Load datasets
-        int[][] dataSet1 = DataLoader.loadData("datasets/dataSet1.csv");
-        int[][] dataSet2 = DataLoader.loadData("datasets/dataSet2.csv");
+        int numClasses = dataset.getNumClasses();
         
-        int[][] features1 = Utils.extractFeatures(dataSet1);
-        int[] labels1 = Utils.extractLabels(dataSet1);
-        int[][] features2 = Utils.extractFeatures(dataSet2);
-        int[] labels2 = Utils.extractLabels(dataSet2);
-        
-        int numClasses = Utils.getMaxLabel(labels1, labels2) + 1;
-        double[] accuracies = new double[2];
-        long[] trainingTimes = new long[2];
-        long[] evaluationTimes = new long[2];
-        
-        for (int fold = 0; fold < 2; fold++) {
-            printAndLog("\nFold " + (fold + 1) + ":");
-            
-            int[][] trainFeatures, testFeatures;
-            int[] trainLabels, testLabels;
-            
-            if (fold == 0) {
-                trainFeatures = features1;
-                trainLabels = labels1;
-                testFeatures = features2;
-                testLabels = labels2;
-            } else {
-                trainFeatures = features2;
-                trainLabels = labels2;
-                testFeatures = features1;
-                testLabels = labels1;
-            }
+        schedule("Voting Classifier (NN + MLP + Weighted k-NN)", "Voting Classifier", (fold, log) -> {
+            Dataset.Fold split = dataset.getFold(fold);
+            int[][] trainFeatures = split.getTrainFeatures();
+            int[] trainLabels = split.getTrainLabels();
+            DenseMatrix trainMatrix = split.getTrainMatrix();
+            int[][] testFeatures = split.getTestFeatures();
+            int[] testLabels = split.getTestLabels();
+            DenseMatrix testMatrix = split.getTestMatrix();
             
             // Create base classifiers
             Classifier nn = new NearestNeighborClassifier();
@@ -355,124 +516,161 @@ public class Main {
             Classifier weightedKnn = new WeightedKNearestNeighborsClassifier(3, numClasses);
             
             // Train base classifiers
-            printAndLog("  Training base classifiers...");
+            log.add("  Training base classifiers...");
             long startTime = System.currentTimeMillis();
-            nn.train(trainFeatures, trainLabels);
-            mlp.train(trainFeatures, trainLabels);
-            weightedKnn.train(trainFeatures, trainLabels);
+            nn.train(trainMatrix, trainLabels);
+            mlp.train(trainMatrix, trainLabels);
+            weightedKnn.train(trainMatrix, trainLabels);
             long endTime = System.currentTimeMillis();
-            trainingTimes[fold] = endTime - startTime;
-            printAndLog("  Training time: " + trainingTimes[fold] + " ms");
+            long trainingTime = endTime - startTime;
+            log.add("  Training time: " + trainingTime + " ms");
             
             // Create voting classifier
             Classifier voting = new SimpleVotingClassifier(new Classifier[]{nn, mlp, weightedKnn});
             
             // Evaluate
-            printAndLog("  Evaluating...");
+            log.add("  Evaluating...");
             int correctPredictions = 0;
             
             startTime = System.currentTimeMillis();
+            int[] predictions = voting.predictBatch(testMatrix);
             for (int i = 0; i < testFeatures.length; i++) {
-                int predicted = voting.predict(testFeatures[i]);
+                int predicted = predictions[i];
                 if (predicted == testLabels[i]) {
                     correctPredictions++;
                 }
             }
             endTime = System.currentTimeMillis();
-            evaluationTimes[fold] = endTime - startTime;
+            long evaluationTime = endTime - startTime;
             
-            accuracies[fold] = (double) correctPredictions / testFeatures.length * 100;
-            printAndLog("  Accuracy: " + String.format("%.2f%%", accuracies[fold]));
-            printAndLog("  Evaluation time: " + evaluationTimes[fold] + " ms");
-        }
-        
-        // Calculate averages
-        double avgAccuracy = (accuracies[0] + accuracies[1]) / 2;
-        long avgTrainingTime = (trainingTimes[0] + trainingTimes[1]) / 2;
-        long avgEvaluationTime = (evaluationTimes[0] + evaluationTimes[1]) / 2;
-        
-        printAndLog("\nAverage Results:");
-        printAndLog("  Average Accuracy: " + String.format("%.2f%%", avgAccuracy));
-        printAndLog("  Average Training Time: " + avgTrainingTime + " ms");
-        printAndLog("  Average Evaluation Time: " + avgEvaluationTime + " ms");
-        
-        allResults.add(new ExperimentResult("Voting Classifier", avgAccuracy, avgTrainingTime, avgEvaluationTime));
+            double accuracy = (double) correctPredictions / testFeatures.length * 100;
+            log.add("  Accuracy: " + String.format("%.2f%%", accuracy));
+            log.add("  Evaluation time: " + evaluationTime + " ms");
+            return new ExperimentScheduler.FoldResult(accuracy, trainingTime, evaluationTime);
+        });
     }
     
     private static void runHybridClassifierExperiment() {
-        printAndLog("\n--- Hybrid Classifier (NN + MLP with distance threshold) ---");
-        
-        // Load datasets
-        int[][] dataSet1 = DataLoader.loadData("datasets/dataSet1.csv");
-        int[][] dataSet2 = DataLoader.loadData("datasets/dataSet2.csv");
+        int numClasses = dataset.getNumClasses();
         
-        int[][] features1 = Utils.extractFeatures(dataSet1);
-        int[] labels1 = Utils.extractLabels(dataSet1);
-        int[][] features2 = Utils.extractFeatures(dataSet2);
-        int[] labels2 = Utils.extractLabels(dataSet2);
-        
-        int numClasses = Utils.getMaxLabel(labels1, labels2) + 1;
-        double[] accuracies = new double[2];
-        long[] evaluationTimes = new long[2];
-        
-        for (int fold = 0; fold < 2; fold++) {
-            printAndLog("\nFold " + (fold + 1) + ":");
-            
-            int[][] trainFeatures, testFeatures;
-            int[] trainLabels, testLabels;
-            
-            if (fold == 0) {
-                trainFeatures = features1;
-                trainLabels = labels1;
-                testFeatures = features2;
-                testLabels = labels2;
-            } else {
-                trainFeatures = features2;
-                trainLabels = labels2;
-                testFeatures = features1;
-                testLabels = labels1;
-            }
+        schedule("Hybrid Classifier (NN + MLP with distance threshold)", "Hybrid Classifier", (fold, log) -> {
+            Dataset.Fold split = dataset.getFold(fold);
+            int[][] trainFeatures = split.getTrainFeatures();
+            int[] trainLabels = split.getTrainLabels();
+            DenseMatrix trainMatrix = split.getTrainMatrix();
+            int[][] testFeatures = split.getTestFeatures();
+            int[] testLabels = split.getTestLabels();
+            DenseMatrix testMatrix = split.getTestMatrix();
             
             // Create and train base classifiers
             NearestNeighborClassifier nn = new NearestNeighborClassifier();
             Classifier mlp = new MLPClassifier(trainFeatures[0].length, 100, numClasses, 0.002, 100);
             
-            printAndLog("  Training base classifiers...");
-            nn.train(trainFeatures, trainLabels);
-            mlp.train(trainFeatures, trainLabels);
+            log.add("  Training base classifiers...");
+            nn.train(trainMatrix, trainLabels);
+            mlp.train(trainMatrix, trainLabels);
             
             // Create hybrid classifier
             double threshold = 20.0;
             Classifier hybrid = new HybridClassifier(nn, mlp, threshold);
             
             // Evaluate
-            printAndLog("  Evaluating...");
+            log.add("  Evaluating...");
             int correctPredictions = 0;
             
             long startTime = System.currentTimeMillis();
+            int[] predictions = hybrid.predictBatch(testMatrix);
             for (int i = 0; i < testFeatures.length; i++) {
-                int predicted = hybrid.predict(testFeatures[i]);
+                int predicted = predictions[i];
                 if (predicted == testLabels[i]) {
                     correctPredictions++;
                 }
             }
             long endTime = System.currentTimeMillis();
-            evaluationTimes[fold] = endTime - startTime;
+            long evaluationTime = endTime - startTime;
+            
+            double accuracy = (double) correctPredictions / testFeatures.length * 100;
+            log.add("  Accuracy: " + String.format("%.2f%%", accuracy));
+            log.add("  Evaluation time: " + evaluationTime + " ms");
+            // Training is not timed here
+            return new ExperimentScheduler.FoldResult(accuracy, -1, evaluationTime);
+        });
+    }
+    
+    // Prints the experiments in the order they were scheduled, waiting on each fold in turn.
+    // Fold reports come from each task's own log, so the output is the same for any parallelism.
+    private static void reportExperiments() throws InterruptedException {
+        for (ScheduledExperiment scheduled : scheduledExperiments) {
+            for (String header : scheduled.sectionHeaders) {
+                printAndLog(header);
+            }
+            printAndLog("\n--- " + scheduled.title + " ---");
+            
+            ExperimentScheduler.Experiment experiment = scheduled.experiment;
+            int numFolds = experiment.getFoldCount();
+            double[] accuracies = new double[numFolds];
+            long[] trainingTimes = new long[numFolds];
+            long[] evaluationTimes = new long[numFolds];
+            boolean timedTraining = true;
+            boolean failed = false;
+            ClassifierMetrics metrics = null;
+            List<ResultsFile.Row> foldRows = new ArrayList<>();
+            
+            for (int fold = 0; fold < numFolds; fold++) {
+                printAndLog("\nFold " + (fold + 1) + ":");
+                try {
+                    ExperimentScheduler.FoldResult result = experiment.awaitFold(fold);
+                    for (String line : result.getLog()) {
+                        printAndLog(line);
+                    }
+                    accuracies[fold] = result.getAccuracy();
+                    trainingTimes[fold] = result.getTrainingTime();
+                    evaluationTimes[fold] = result.getEvaluationTime();
+                    foldRows.add(ResultsFile.Row.of(experiment.getName(), String.valueOf(fold + 1), result.getAccuracy(),
+                        result.getTrainingTime() >= 0 ? result.getTrainingTime() : Double.NaN, result.getEvaluationTime(),
+                        dataset.getFold(fold).getTestLabels().length, result.getMetrics()));
+                    timedTraining &= result.getTrainingTime() >= 0;
+                    if (result.getMetrics() != null) {
+                        if (metrics == null) {
+                            metrics = new ClassifierMetrics();
+                        }
+                        metrics.add(result.getMetrics());
+                    }
+                } catch (ExecutionException e) {
+                    printAndLog("  Error: " + e.getCause());
+                    failed = true;
+                }
+            }
             
-            accuracies[fold] = (double) correctPredictions / testFeatures.length * 100;
-            printAndLog("  Accuracy: " + String.format("%.2f%%", accuracies[fold]));
-            printAndLog("  Evaluation time: " + evaluationTimes[fold] + " ms");
+            if (failed) {
+                printAndLog("\nExperiment failed; left out of the summary.");
+                continue;
+            }
+            
+            // Calculate averages
+            double avgAccuracy = average(accuracies);
+            long avgTrainingTime = timedTraining ? average(trainingTimes) : 0;
+            long avgEvaluationTime = average(evaluationTimes);
+            
+            printAndLog("\nAverage Results:");
+            printAndLog("  Average Accuracy: " + String.format("%.2f%%", avgAccuracy));
+            if (timedTraining) {
+                printAndLog("  Average Training Time: " + avgTrainingTime + " ms");
+            }
+            printAndLog("  Average Evaluation Time: " + avgEvaluationTime + " ms");
+            if (metrics != null && metrics.getPredictCount() > 0) {
+                printAndLog("  " + formatLatency(metrics.getPredictLatency()));
+            }
+            
+            allResults.add(new ExperimentResult(experiment.getName(), avgAccuracy, avgTrainingTime, avgEvaluationTime, metrics));
+            
+            // Fold rows followed by the experiment's mean row
+            for (ResultsFile.Row row : foldRows) {
+                structuredResults.add(row);
+            }
+            structuredResults.add(ResultsFile.Row.mean(experiment.getName(), foldRows, avgAccuracy,
+                timedTraining ? avgTrainingTime : Double.NaN, avgEvaluationTime, metrics));
         }
-        
-        // Calculate averages
-        double avgAccuracy = (accuracies[0] + accuracies[1]) / 2;
-        long avgEvaluationTime = (evaluationTimes[0] + evaluationTimes[1]) / 2;
-        
-        printAndLog("\nAverage Results:");
-        printAndLog("  Average Accuracy: " + String.format("%.2f%%", avgAccuracy));
-        printAndLog("  Average Evaluation Time: " + avgEvaluationTime + " ms");
-        
-        allResults.add(new ExperimentResult("Hybrid Classifier", avgAccuracy, 0, avgEvaluationTime));
     }
     
     private static void printSummary() {
@@ -29,7 +29,13 @@ public class MultiClassGradientBoostedTreesClassifier implements Classifier {
 
     @Override
     public void train(int[][] features, int[] labels) {
-        int n = features.length;
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        int n = features.getRowCount();
+        int[] data = features.getData();
 
         // Convert labels from {0,...,numClasses-1} to categorical
         // Suitable for multi-class softmax.
@@ -68,7 +74,7 @@ public class MultiClassGradientBoostedTreesClassifier implements Classifier {
 
                 // Update predictions with this tree's outputs scaled by eta
                 for (int i = 0; i < n; i++) {
-                    predictions[i][c] += eta * tree.predict(features[i]);
+                    predictions[i][c] += eta * tree.predictAt(data, features.rowOffset(i));
                 }
             }
 
@@ -78,13 +84,22 @@ public class MultiClassGradientBoostedTreesClassifier implements Classifier {
 
     @Override
     public int predict(int[] sample) {
+        return predictAt(sample, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    private int predictAt(int[] sample, int offset) {
         // Compute final raw scores by summing all trees' contributions
         double[] finalScores = new double[numClasses];
         for (int c = 0; c < numClasses; c++) finalScores[c] = 0.0;
 
         for (List<GradientTree> roundTrees : allTrees) {
             for (int c = 0; c < numClasses; c++) {
-                finalScores[c] += eta * roundTrees.get(c).predict(sample);
+                finalScores[c] += eta * roundTrees.get(c).predictAt(sample, offset);
             }
         }
 
@@ -93,6 +108,33 @@ public class MultiClassGradientBoostedTreesClassifier implements Classifier {
         return argMax(probs);
     }
 
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    // Evaluates each tree over the whole batch (level-wise) and accumulates the raw scores per sample
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int n = samples.getRowCount();
+        double[][] finalScores = new double[n][numClasses];
+        double[] treeOutputs = new double[n];
+        for (List<GradientTree> roundTrees : allTrees) {
+            for (int c = 0; c < numClasses; c++) {
+                roundTrees.get(c).predictBatch(samples, treeOutputs);
+                for (int i = 0; i < n; i++) {
+                    finalScores[i][c] += eta * treeOutputs[i];
+                }
+            }
+        }
+
+        int[] predictions = new int[n];
+        for (int i = 0; i < n; i++) {
+            predictions[i] = argMax(softmax(finalScores[i]));
+        }
+        return predictions;
+    }
+
     private double[][] computeSoftmaxProbabilities(double[][] pred) {
         int n = pred.length;
         int k = numClasses;
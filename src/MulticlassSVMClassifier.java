@@ -26,8 +26,13 @@ public class MulticlassSVMClassifier implements Classifier {
 
     @Override
     public void train(int[][] features, int[] labels) {
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
         initializeClassifiers(); // Reset classifiers for each fold
-        int n = features.length; // Number of training
+        int n = features.getRowCount(); // Number of training
 
         // For each class, train a binary classifier
         for (int c = 0; c < numClasses; c++) {
@@ -43,12 +48,21 @@ public class MulticlassSVMClassifier implements Classifier {
 
     @Override
     public int predict(int[] sample) {
+        return predictAt(sample, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    private int predictAt(int[] sample, int offset) {
         // Predict the class by selecting the classifier with the highest decision function score
         double maxScore = Double.NEGATIVE_INFINITY;
         int predictedClass = -1;
         for (int c = 0; c < numClasses; c++) {
             // Compute the decision function score for the current class
-            double score = classifiers[c].decisionFunction(sample);
+            double score = classifiers[c].decisionFunction(sample, offset);
             if (score > maxScore) {
                 // Update the predicted class if the score is the highest so far
                 maxScore = score;
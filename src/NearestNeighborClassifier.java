@@ -1,12 +1,80 @@
 public class NearestNeighborClassifier implements Classifier {
-    private int[][] trainingFeatures; // Stores the training feature vectors
+    private FeatureStore references; // Stores the training feature vectors (contiguous or packed)
+    private int[][] trainingFeatures; // The same vectors as int[][], kept only when handed in that form
     private int[] trainingLabels;  // Stores the corresponding labels for the training data
+    private boolean packFeatures; // Store features in 8 or 4 bits per value when they fit
+    private boolean useIndex; // Build a KD-tree in train and answer queries through it
+    private KDTree index; // The KD-tree over references, or null for a linear scan
+    private boolean parallelSearch; // Split each linear scan into shards on the common ForkJoinPool
+    private ShardedSearch shardedSearch; // Sharded scan over references, or null without parallelSearch
+    private NeighborSearch search; // Backend for single queries: the KD-tree, the sharded scan or a linear scan
+    private BatchDistances batchDistances; // Tiled distance engine for nearestBatch, or null with an index
+    private PrototypeSelection prototypeSelection; // Reduces the training set in train, or null to keep every row
+
+    public NearestNeighborClassifier() {
+        this(false);
+    }
+
+    // With packFeatures, training vectors whose values all fit in 0..255 are kept as packed bytes
+    // (or nibbles for 0..15), which cuts the memory of the reference set by 4-8x.
+    public NearestNeighborClassifier(boolean packFeatures) {
+        this(packFeatures, false);
+    }
+
+    // With useIndex, train builds a KDTree over the reference vectors and predictions search it
+    // instead of scanning every row. Results are identical; only the search cost changes.
+    public NearestNeighborClassifier(boolean packFeatures, boolean useIndex) {
+        this(packFeatures, useIndex, false);
+    }
+
+    // With parallelSearch, a single query over a large reference set is scanned in shards on the
+    // common ForkJoinPool (see ShardedSearch); small sets are still scanned sequentially.
+    public NearestNeighborClassifier(boolean packFeatures, boolean useIndex, boolean parallelSearch) {
+        this(packFeatures, useIndex, parallelSearch, null);
+    }
+
+    // With a PrototypeSelection, train keeps only the training rows it selects (condensed and/or
+    // edited), so predictions scan fewer rows at some cost in accuracy.
+    public NearestNeighborClassifier(boolean packFeatures, boolean useIndex, boolean parallelSearch,
+                                     PrototypeSelection prototypeSelection) {
+        this.packFeatures = packFeatures;
+        this.useIndex = useIndex;
+        this.parallelSearch = parallelSearch;
+        this.prototypeSelection = prototypeSelection;
+    }
 
     // Getter for training features (used for external access if needed)
     public int[][] getTrainingFeatures() {
+        if (trainingFeatures == null && references != null) {
+            int[][] rows = new int[references.getRowCount()][references.getColumnCount()];
+            for (int i = 0; i < rows.length; i++) {
+                references.copyRow(i, rows[i]);
+            }
+            trainingFeatures = rows;
+        }
         return trainingFeatures;
     }
 
+    // Getter for the stored reference vectors in their in-memory layout
+    public FeatureStore getReferenceStore() {
+        return references;
+    }
+
+    // The KD-tree built by train (query statistics live there), or null without useIndex
+    public KDTree getIndex() {
+        return index;
+    }
+
+    // The search backend that answers single queries (see nearestLabel)
+    public NeighborSearch getSearch() {
+        return search;
+    }
+
+    // The training-set reduction (its statistics describe the last train), or null
+    public PrototypeSelection getPrototypeSelection() {
+        return prototypeSelection;
+    }
+
     // Getter for training labels (used for external access if needed)
     public int[] getTrainingLabels() {
         return trainingLabels;
@@ -14,27 +82,130 @@ public class NearestNeighborClassifier implements Classifier {
 
     @Override
     public void train(int[][] features, int[] labels) {
+        if (prototypeSelection != null) {
+            train(DenseMatrix.of(features), labels);
+            return;
+        }
+        if (packFeatures) {
+            this.references = PackedFeatureStore.packIfFits(features);
+            this.trainingFeatures = null;
+        } else {
+            this.references = DenseMatrix.of(features);
+            this.trainingFeatures = features;
+        }
+        this.trainingLabels = labels;
+        buildSearch();
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        if (prototypeSelection != null) {
+            int[] kept = prototypeSelection.select(features, labels);
+            features = features.selectRows(kept);
+            labels = PrototypeSelection.selectLabels(labels, kept);
+        }
         // Simply store the training features and labels for future predictions
-        this.trainingFeatures = features;
+        this.references = packFeatures ? PackedFeatureStore.packIfFits(features) : features;
+        this.trainingFeatures = null;
         this.trainingLabels = labels;
+        buildSearch();
+    }
+
+    private void buildSearch() {
+        this.index = useIndex ? new KDTree(references) : null;
+        this.shardedSearch = parallelSearch && !useIndex ? new ShardedSearch(references) : null;
+        this.batchDistances = useIndex ? null : new BatchDistances(references);
+        this.search = index != null ? index
+            : shardedSearch != null && shardedSearch.isParallel() ? shardedSearch
+            : new LinearSearch(references);
     }
 
     @Override
     public int predict(int[] testImage) {
-        double minDistance = Double.MAX_VALUE; // Initialize the minimum distance to a very large value
-        int predictedLabel = -1;  // Initialize the predicted label as invalid (-1)
-
-        // Iterate through all training samples to find the nearest neighbor
-        for (int i = 0; i < trainingFeatures.length; i++) {
-            // Compute the Euclidean distance between the test image and the current training sample
-            double distance = DistanceCalculator.euclideanDistance(testImage, trainingFeatures[i]);
-            // Update the minimum distance and predicted label if a closer neighbor is found
-            if (distance < minDistance) {
-                minDistance = distance;
-                predictedLabel = trainingLabels[i];
+        return predictAt(testImage, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    private int predictAt(int[] sample, int sampleOffset) {
+        return nearestLabel(sample, sampleOffset, Long.MAX_VALUE, null);
+    }
+
+    // Label of the nearest training sample within maxSquaredDistance, or -1 if there is none.
+    // The squared distance of that sample goes to squaredDistance[0] unless squaredDistance is null.
+    // Squared distances order the same as distances, so no sqrt is needed.
+    public int nearestLabel(int[] sample, int sampleOffset, long maxSquaredDistance, long[] squaredDistance) {
+        int nearest = search.nearestWithin(sample, sampleOffset, maxSquaredDistance, squaredDistance);
+        return nearest == -1 ? -1 : trainingLabels[nearest];
+    }
+
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int[] labels = new int[samples.getRowCount()];
+        nearestBatch(samples, new double[labels.length], labels);
+        return labels;
+    }
+
+    // Nearest training label and its distance for every row of queries.
+    // Distances come tile by tile from BatchDistances: a block of training rows is compared against
+    // a whole block of queries while it is still in cache, instead of streaming the full training
+    // set once per query.
+    public void nearestBatch(DenseMatrix queries, double[] distances, int[] labels) {
+        int m = queries.getRowCount();
+        int n = references.getRowCount();
+        int[] data = queries.getData();
+        long[] best = new long[m];
+        java.util.Arrays.fill(best, Long.MAX_VALUE);
+        java.util.Arrays.fill(labels, 0, m, -1);
+
+        if (search == index || search == shardedSearch) {
+            // Tree and sharded searches are per query; tiling does not apply
+            long[] nearestDistance = new long[1];
+            int[] nearest = new int[1];
+            for (int q = 0; q < m; q++) {
+                int found = search.nearest(data, queries.rowOffset(q), 1, nearestDistance, nearest);
+                if (found > 0) {
+                    labels[q] = trainingLabels[nearest[0]];
+                    distances[q] = Math.sqrt(nearestDistance[0]);
+                } else {
+                    distances[q] = Double.MAX_VALUE;
+                }
+            }
+            return;
+        }
+
+        BatchDistances.Block block = batchDistances.newBlock(queries);
+        for (int queryStart = 0; queryStart < m; queryStart += BatchDistances.QUERY_TILE) {
+            int queryEnd = Math.min(m, queryStart + BatchDistances.QUERY_TILE);
+            for (int refStart = 0; refStart < n; refStart += BatchDistances.REFERENCE_TILE) {
+                int refEnd = Math.min(n, refStart + BatchDistances.REFERENCE_TILE);
+                block.compute(queryStart, queryEnd, refStart, refEnd);
+                for (int q = queryStart; q < queryEnd; q++) {
+                    long bestDistance = best[q];
+                    int bestLabel = labels[q];
+                    for (int i = refStart; i < refEnd; i++) {
+                        long distance = block.get(q, i);
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            bestLabel = trainingLabels[i];
+                        }
+                    }
+                    best[q] = bestDistance;
+                    labels[q] = bestLabel;
+                }
             }
         }
-        // Return the label of the nearest neighbor
-        return predictedLabel;
+
+        for (int q = 0; q < m; q++) {
+            distances[q] = labels[q] == -1 ? Double.MAX_VALUE : Math.sqrt(best[q]);
+        }
     }
 }
@@ -0,0 +1,93 @@
+public class NeighborHeap {
+    // The bounded top-k used by the exact k-NN searches: a max-heap of (squared distance, row) pairs
+    // in two parallel arrays, rooted at the farthest kept neighbor, then sorted into ascending order.
+    // Ties are broken towards the lower row index, so every backend returns the same neighbors.
+    // vote turns the sorted neighbors into a distance-weighted class prediction.
+
+    // Adds a neighbor to the max-heap of the nearest ones (holding count entries, at most k) whose
+    // root is the farthest kept neighbor, replacing the root once the heap is full. Callers only offer
+    // rows strictly nearer than the root, so earlier training rows win ties. Returns the new count.
+    static int offer(long[] distances, int[] rows, int count, int k, long distance, int row) {
+        if (count < k) {
+            int pos = count;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!farther(distance, row, distances[parent], rows[parent])) {
+                    break;
+                }
+                distances[pos] = distances[parent];
+                rows[pos] = rows[parent];
+                pos = parent;
+            }
+            distances[pos] = distance;
+            rows[pos] = row;
+            return count + 1;
+        }
+        siftDown(distances, rows, 0, k, distance, row);
+        return k;
+    }
+
+    // Places (distance, row) at pos and moves it down until both children are nearer
+    private static void siftDown(long[] distances, int[] rows, int pos, int size, long distance, int row) {
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && farther(distances[child + 1], rows[child + 1], distances[child], rows[child])) {
+                child++;
+            }
+            if (!farther(distances[child], rows[child], distance, row)) {
+                break;
+            }
+            distances[pos] = distances[child];
+            rows[pos] = rows[child];
+            pos = child;
+        }
+        distances[pos] = distance;
+        rows[pos] = row;
+    }
+
+    // Heapsort of the max-heap into ascending (distance, row) order
+    static void sortAscending(long[] distances, int[] rows, int count) {
+        for (int end = count - 1; end > 0; end--) {
+            long distance = distances[end];
+            int row = rows[end];
+            distances[end] = distances[0];
+            rows[end] = rows[0];
+            siftDown(distances, rows, 0, end, distance, row);
+        }
+    }
+
+    static boolean farther(long distance, int row, long otherDistance, int otherRow) {
+        return distance > otherDistance || (distance == otherDistance && row > otherRow);
+    }
+
+    // Distance-weighted majority over the nearest training rows (squared distances, ascending);
+    // labelWeights is scratch space with one entry per class
+    static int vote(long[] squaredDistances, int[] rows, int count, int[] trainingLabels, double[] labelWeights) {
+        int numClasses = labelWeights.length;
+        // Weighted voting
+        // weight = 1/(distance+epsilon)
+        java.util.Arrays.fill(labelWeights, 0);
+        double epsilon = 1e-5;
+        for (int i = 0; i < count; i++) {
+            int label = trainingLabels[rows[i]];
+            if (label >= 0 && label < numClasses) {
+                double weight = 1.0 / (Math.sqrt(squaredDistances[i]) + epsilon);
+                labelWeights[label] += weight;
+            }
+        }
+
+        int predictedLabel = -1;
+        double maxWeight = -1.0;
+        for (int c = 0; c < numClasses; c++) {
+            if (labelWeights[c] > maxWeight) {
+                maxWeight = labelWeights[c];
+                predictedLabel = c;
+            }
+        }
+
+        return predictedLabel;
+    }
+}
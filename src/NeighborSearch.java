@@ -0,0 +1,24 @@
+public interface NeighborSearch {
+    // Nearest-neighbor search over the rows of a FeatureStore. Implemented by the linear scan, the
+    // KD-tree, the sharded scan and the HNSW graph, so classifiers can hand queries to whichever
+    // backend they were built with. Exact backends break distance ties towards the lower row index.
+    FeatureStore getPoints();
+
+    // Fills squaredDistances/rows with up to k nearest rows in ascending order and returns how many
+    // were found (fewer than k only when the store holds fewer rows)
+    int nearest(int[] query, int queryOffset, int k, long[] squaredDistances, int[] rows);
+
+    // Row nearest to the query among those within maxSquaredDistance, or -1 if there is none.
+    // Its squared distance is written to squaredDistance[0] unless squaredDistance is null.
+    default int nearestWithin(int[] query, int queryOffset, long maxSquaredDistance, long[] squaredDistance) {
+        long[] distance = new long[1];
+        int[] row = new int[1];
+        if (nearest(query, queryOffset, 1, distance, row) == 0 || distance[0] > maxSquaredDistance) {
+            return -1;
+        }
+        if (squaredDistance != null) {
+            squaredDistance[0] = distance[0];
+        }
+        return row[0];
+    }
+}
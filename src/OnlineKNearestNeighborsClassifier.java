@@ -0,0 +1,108 @@
+public class OnlineKNearestNeighborsClassifier implements Classifier {
+    // Distance-weighted k-NN (k = 1 gives plain 1-NN) over an OnlineReferenceStore. New labeled
+    // samples are added with add instead of retraining, also while other threads predict, and the
+    // store keeps itself under its memory cap by evicting old or rarely used samples. train starts a
+    // new store from the given set; queries already running finish on the old one.
+    private final int k;
+    private final int numClasses;
+    private final long maxBytes;
+    private final boolean evictLeastUseful;
+    private volatile OnlineReferenceStore store; // created by the first train or add
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // Unbounded store
+    public OnlineKNearestNeighborsClassifier(int k, int numClasses) {
+        this(k, numClasses, Long.MAX_VALUE, false);
+    }
+
+    // maxBytes caps the stored samples; evictLeastUseful evicts by use count instead of age
+    public OnlineKNearestNeighborsClassifier(int k, int numClasses, long maxBytes, boolean evictLeastUseful) {
+        this.k = k;
+        this.numClasses = numClasses;
+        this.maxBytes = maxBytes;
+        this.evictLeastUseful = evictLeastUseful;
+    }
+
+    // The current reference store, or null before the first train or add
+    public OnlineReferenceStore getStore() {
+        return store;
+    }
+
+    @Override
+    public void train(int[][] features, int[] labels) {
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        OnlineReferenceStore fresh = new OnlineReferenceStore(features.getColumnCount(), maxBytes, evictLeastUseful);
+        fresh.addAll(features, labels);
+        this.store = fresh;
+    }
+
+    // Adds one labeled sample
+    public void add(int[] sample, int label) {
+        OnlineReferenceStore references = storeFor(sample.length);
+        if (sample.length != references.getColumnCount()) {
+            throw new IllegalArgumentException("Expected " + references.getColumnCount() + " columns, got " + sample.length);
+        }
+        references.add(sample, 0, label);
+    }
+
+    // Adds a batch of labeled samples under one lock acquisition
+    public void add(DenseMatrix samples, int[] labels) {
+        storeFor(samples.getColumnCount()).addAll(samples, labels);
+    }
+
+    private OnlineReferenceStore storeFor(int columns) {
+        OnlineReferenceStore current = store;
+        if (current == null) {
+            synchronized (this) {
+                if (store == null) {
+                    store = new OnlineReferenceStore(columns, maxBytes, evictLeastUseful);
+                }
+                current = store;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public int predict(int[] testImage) {
+        return predictAt(testImage, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    private int predictAt(int[] testImage, int testOffset) {
+        OnlineReferenceStore references = store;
+        if (references == null) {
+            return -1;
+        }
+        Scratch buffers = scratch.get();
+        long[] nearestDistances = buffers.distances;
+        int[] nearestRows = buffers.rows;
+        references.beginRead();
+        try {
+            // Exact scan under the read lock, so no row is replaced while it runs
+            int found = new LinearSearch(references).nearest(testImage, testOffset, k, nearestDistances, nearestRows);
+            for (int i = 0; i < found; i++) {
+                references.recordUse(nearestRows[i]);
+            }
+            return NeighborHeap.vote(nearestDistances, nearestRows, found,
+                references.getLabels(), buffers.weights);
+        } finally {
+            references.endRead();
+        }
+    }
+
+    // Per-thread buffers reused by every predict call on this classifier
+    private final class Scratch {
+        final long[] distances = new long[k];
+        final int[] rows = new int[k];
+        final double[] weights = new double[numClasses];
+    }
+}
@@ -0,0 +1,252 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class OnlineReferenceStore implements FeatureStore {
+    // Growing set of labeled reference vectors for k-NN, filled by add calls instead of one train.
+    // Adds take the write lock and queries the read lock, so samples can be added while other
+    // threads search: a reader calls beginRead()/endRead() around a whole scan, and the rows and
+    // labels it sees do not change until endRead. Row indices are storage slots; once the store is
+    // full a new sample reuses the slot of an evicted one.
+    // The memory cap fixes the number of slots (vectors, labels and bookkeeping included). When it is
+    // reached, each add evicts either the oldest sample (FIFO) or a least useful one: among a few
+    // randomly sampled slots, the sample counted least often among the k nearest of past queries,
+    // ties going to the older one. Sampling keeps the eviction cost fixed instead of growing with
+    // the store. Use counts are halved every capacity inserts so old popularity fades, and samples
+    // from the newer half of the store are not candidates, so fresh samples get a chance to be used.
+    private static final int BOOKKEEPING_BYTES = 16; // label, insert sequence number and use count per slot
+    private static final int MIN_GROWTH = 64;
+    private static final int EVICTION_SAMPLES = 8; // candidate slots compared per least-useful eviction
+    private static final int MAX_EVICTION_DRAWS = 64; // slots drawn before settling for fewer candidates
+
+    private final int columns;
+    private final int capacity; // slots that fit in the memory cap
+    private final boolean evictLeastUseful;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Random random = new Random(42); // eviction samples, drawn under the write lock
+
+    private int[] data = new int[0]; // row-major, one row per slot
+    private int[] labels = new int[0];
+    private long[] insertedAt = new long[0]; // insert sequence number of the sample in each slot
+    private AtomicIntegerArray uses = new AtomicIntegerArray(0);
+    private int size;
+    private int nextFifoSlot; // oldest slot once full, in FIFO mode
+    private long insertions;
+    private long evictions;
+    private long lastAging;
+
+    // Unbounded store
+    public OnlineReferenceStore(int columns) {
+        this(columns, Long.MAX_VALUE, false);
+    }
+
+    // maxBytes: memory cap for the stored samples; evictLeastUseful: evict by use count instead of age
+    public OnlineReferenceStore(int columns, long maxBytes, boolean evictLeastUseful) {
+        long bytesPerRow = 4L * columns + BOOKKEEPING_BYTES;
+        if (maxBytes < bytesPerRow) {
+            throw new IllegalArgumentException("Memory cap of " + maxBytes + " bytes is below one sample ("
+                + bytesPerRow + " bytes)");
+        }
+        this.columns = columns;
+        this.capacity = (int) Math.min(maxBytes / bytesPerRow, Integer.MAX_VALUE / Math.max(1, columns));
+        this.evictLeastUseful = evictLeastUseful;
+    }
+
+    // Adds sample[offset, offset + columns) with its label, evicting a sample if the store is full
+    public void add(int[] sample, int offset, int label) {
+        if (offset < 0 || offset > sample.length - columns) {
+            throw new IllegalArgumentException("Sample of " + sample.length + " values is too short for " + columns
+                + " columns at offset " + offset);
+        }
+        lock.writeLock().lock();
+        try {
+            insert(sample, offset, label);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds every row of samples under a single write lock
+    public void addAll(DenseMatrix samples, int[] sampleLabels) {
+        if (samples.getColumnCount() != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " columns, got " + samples.getColumnCount());
+        }
+        if (sampleLabels.length < samples.getRowCount()) {
+            throw new IllegalArgumentException("Expected " + samples.getRowCount() + " labels, got " + sampleLabels.length);
+        }
+        lock.writeLock().lock();
+        try {
+            for (int r = 0; r < samples.getRowCount(); r++) {
+                insert(samples.getData(), samples.rowOffset(r), sampleLabels[r]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            nextFifoSlot = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(int[] sample, int offset, int label) {
+        int slot;
+        if (size < capacity) {
+            ensureSlots(size + 1);
+            slot = size++;
+        } else {
+            slot = evictLeastUseful ? leastUsefulSlot() : nextFifoSlot;
+            nextFifoSlot = (slot + 1) % capacity;
+            evictions++;
+        }
+        System.arraycopy(sample, offset, data, slot * columns, columns);
+        labels[slot] = label;
+        insertedAt[slot] = insertions++;
+        uses.set(slot, 0);
+        if (evictLeastUseful && insertions - lastAging >= capacity) {
+            for (int i = 0; i < size; i++) {
+                uses.set(i, uses.get(i) >> 1);
+            }
+            lastAging = insertions;
+        }
+    }
+
+    // Slot with the fewest uses among EVICTION_SAMPLES random slots from the older half of the store,
+    // the oldest on ties. Half the slots qualify, so the draws almost never run out; if they do, the
+    // oldest slot drawn is evicted.
+    private int leastUsefulSlot() {
+        long protectedFrom = insertions - capacity / 2;
+        int victim = -1;
+        int oldest = -1;
+        int candidates = 0;
+        for (int draw = 0; draw < MAX_EVICTION_DRAWS && candidates < EVICTION_SAMPLES; draw++) {
+            int i = random.nextInt(size);
+            if (oldest == -1 || insertedAt[i] < insertedAt[oldest]) {
+                oldest = i;
+            }
+            if (insertedAt[i] >= protectedFrom) continue;
+            candidates++;
+            if (victim == -1 || uses.get(i) < uses.get(victim)
+                || (uses.get(i) == uses.get(victim) && insertedAt[i] < insertedAt[victim])) {
+                victim = i;
+            }
+        }
+        return victim != -1 ? victim : oldest;
+    }
+
+    // Grows the slot arrays geometrically, up to capacity
+    private void ensureSlots(int slots) {
+        if (slots <= labels.length) {
+            return;
+        }
+        int grown = (int) Math.min(capacity, Math.max((long) slots, Math.max(MIN_GROWTH, 2L * labels.length)));
+        data = java.util.Arrays.copyOf(data, grown * columns);
+        labels = java.util.Arrays.copyOf(labels, grown);
+        insertedAt = java.util.Arrays.copyOf(insertedAt, grown);
+        AtomicIntegerArray grownUses = new AtomicIntegerArray(grown);
+        for (int i = 0; i < size; i++) {
+            grownUses.set(i, uses.get(i));
+        }
+        uses = grownUses;
+    }
+
+    // Readers hold the read lock from beginRead to endRead; row contents, labels and the row count
+    // are only meaningful in between
+    public void beginRead() {
+        lock.readLock().lock();
+    }
+
+    public void endRead() {
+        lock.readLock().unlock();
+    }
+
+    public int getLabel(int row) {
+        return labels[row];
+    }
+
+    // Labels by slot; only valid while reading
+    public int[] getLabels() {
+        return labels;
+    }
+
+    // Counts a query for which this row was among the nearest (the least-useful eviction order)
+    public void recordUse(int row) {
+        uses.incrementAndGet(row);
+    }
+
+    public int getUseCount(int row) {
+        return uses.get(row);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isEvictingLeastUseful() {
+        return evictLeastUseful;
+    }
+
+    public long getInsertionCount() {
+        lock.readLock().lock();
+        try {
+            return insertions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getEvictionCount() {
+        lock.readLock().lock();
+        try {
+            return evictions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns;
+    }
+
+    @Override
+    public int get(int row, int col) {
+        return data[row * columns + col];
+    }
+
+    @Override
+    public void copyRow(int row, int[] dest) {
+        System.arraycopy(data, row * columns, dest, 0, columns);
+    }
+
+    @Override
+    public long squaredDistance(int[] query, int queryOffset, int row) {
+        return DistanceCalculator.squaredDistance(query, queryOffset, data, row * columns, columns);
+    }
+
+    @Override
+    public long squaredDistance(int[] query, int queryOffset, int row, long bound) {
+        return DistanceCalculator.squaredDistance(query, queryOffset, data, row * columns, columns, bound);
+    }
+
+    // Memory of the allocated slots, which never exceeds the cap
+    @Override
+    public long getSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) labels.length * (4L * columns + BOOKKEEPING_BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
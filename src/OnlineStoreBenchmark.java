@@ -0,0 +1,106 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OnlineStoreBenchmark {
+    // Streams the training rows of the first digit fold into OnlineKNearestNeighborsClassifier in
+    // batches while reader threads predict test rows concurrently, and compares the time spent
+    // adding with rebuilding a WeightedKNearestNeighborsClassifier from all rows seen so far after
+    // every batch. Runs an unbounded store and FIFO / least-useful eviction under --max-kb.
+    // Usage: java OnlineStoreBenchmark [--k K] [--batch B] [--readers R] [--max-kb KB]
+    public static void main(String[] args) throws InterruptedException {
+        int k = intOption(args, "--k", 3);
+        int batch = intOption(args, "--batch", 100);
+        int readers = intOption(args, "--readers", 2);
+        long maxBytes = 1024L * intOption(args, "--max-kb", 256);
+        Dataset dataset = Dataset.load("datasets/dataSet1.csv", "datasets/dataSet2.csv");
+        Dataset.Fold split = dataset.getFold(0);
+        DenseMatrix train = split.getTrainMatrix();
+        int[] trainLabels = split.getTrainLabels();
+        DenseMatrix test = split.getTestMatrix();
+        int[] testLabels = split.getTestLabels();
+        int numClasses = dataset.getNumClasses();
+        int n = train.getRowCount();
+
+        System.out.println("Online store benchmark: " + n + " rows in batches of " + batch + ", k=" + k
+            + ", " + readers + " concurrent readers");
+
+        // Baseline: rebuild from every row seen so far after each batch
+        long rebuildNanos = 0;
+        for (int end = Math.min(batch, n); ; end = Math.min(end + batch, n)) {
+            long start = System.nanoTime();
+            int[] seen = new int[end];
+            for (int i = 0; i < end; i++) {
+                seen[i] = i;
+            }
+            new WeightedKNearestNeighborsClassifier(k, numClasses)
+                .train(train.selectRows(seen), PrototypeSelection.selectLabels(trainLabels, seen));
+            rebuildNanos += System.nanoTime() - start;
+            if (end == n) break;
+        }
+        System.out.printf("Rebuild after every batch: %.1f ms in total%n", rebuildNanos / 1e6);
+        System.out.println();
+        System.out.println(String.format("%-22s %9s %10s %9s %9s %10s %9s %9s", "store", "add ms",
+            "vs rebuild", "queries", "mean us", "evictions", "KB", "accuracy"));
+
+        String[] names = {"unbounded", "FIFO, capped", "least useful, capped"};
+        for (int mode = 0; mode < names.length; mode++) {
+            OnlineKNearestNeighborsClassifier classifier = mode == 0
+                ? new OnlineKNearestNeighborsClassifier(k, numClasses)
+                : new OnlineKNearestNeighborsClassifier(k, numClasses, maxBytes, mode == 2);
+            classifier.add(train.selectRows(new int[]{0}), new int[]{trainLabels[0]});
+
+            AtomicBoolean done = new AtomicBoolean();
+            LatencyHistogram latency = new LatencyHistogram();
+            Thread[] threads = new Thread[readers];
+            for (int t = 0; t < readers; t++) {
+                int first = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = first; !done.get(); i = (i + readers) % test.getRowCount()) {
+                        long start = System.nanoTime();
+                        classifier.predict(test, i);
+                        latency.record(System.nanoTime() - start);
+                    }
+                });
+                threads[t].start();
+            }
+
+            long addNanos = 0;
+            for (int from = 1; from < n; from += batch) {
+                int to = Math.min(n, from + batch);
+                int[] rows = new int[to - from];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = from + i;
+                }
+                DenseMatrix samples = train.selectRows(rows);
+                int[] labels = PrototypeSelection.selectLabels(trainLabels, rows);
+                long start = System.nanoTime();
+                classifier.add(samples, labels);
+                addNanos += System.nanoTime() - start;
+            }
+            done.set(true);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            int correct = 0;
+            for (int i = 0; i < test.getRowCount(); i++) {
+                if (classifier.predict(test, i) == testLabels[i]) {
+                    correct++;
+                }
+            }
+            OnlineReferenceStore store = classifier.getStore();
+            System.out.println(String.format("%-22s %9.1f %9.1fx %9d %9.1f %10d %9d %8.2f%%", names[mode],
+                addNanos / 1e6, (double) rebuildNanos / Math.max(1, addNanos), latency.getCount(),
+                latency.getMean() / 1e3, store.getEvictionCount(), store.getSizeInBytes() / 1024,
+                100.0 * correct / test.getRowCount()));
+        }
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,160 @@
+public class PackedFeatureStore implements FeatureStore {
+    // Stores small non-negative feature values in 8 bits (0..255) or 4 bits (0..15) each,
+    // instead of a 32-bit int per value. Rows are contiguous; with 4 bits, even columns
+    // use the low nibble of a byte and odd columns the high nibble.
+    public static final int BYTE_BITS = 8;
+    public static final int NIBBLE_BITS = 4;
+
+    private final byte[] data;
+    private final int rows;
+    private final int cols;
+    private final int bitsPerValue;
+    private final int bytesPerRow;
+
+    private PackedFeatureStore(int rows, int cols, int bitsPerValue) {
+        this.rows = rows;
+        this.cols = cols;
+        this.bitsPerValue = bitsPerValue;
+        this.bytesPerRow = bitsPerValue == NIBBLE_BITS ? (cols + 1) / 2 : cols;
+        this.data = new byte[Math.multiplyExact(rows, bytesPerRow)];
+    }
+
+    // Smallest encoding that holds every value of the store, or -1 if some value is outside 0..255
+    public static int requiredBits(FeatureStore store) {
+        int max = 0;
+        for (int r = 0; r < store.getRowCount(); r++) {
+            for (int c = 0; c < store.getColumnCount(); c++) {
+                int v = store.get(r, c);
+                if (v < 0 || v > 255) return -1;
+                if (v > max) max = v;
+            }
+        }
+        return max <= 15 ? NIBBLE_BITS : BYTE_BITS;
+    }
+
+    public static int requiredBits(int[][] features) {
+        int max = 0;
+        for (int[] row : features) {
+            for (int v : row) {
+                if (v < 0 || v > 255) return -1;
+                if (v > max) max = v;
+            }
+        }
+        return max <= 15 ? NIBBLE_BITS : BYTE_BITS;
+    }
+
+    // Packs with the smallest encoding that fits; throws if a value is outside 0..255
+    public static PackedFeatureStore pack(FeatureStore store) {
+        int bits = requiredBits(store);
+        if (bits == -1) {
+            throw new IllegalArgumentException("Feature values must be in 0..255 to be packed");
+        }
+        PackedFeatureStore packed = new PackedFeatureStore(store.getRowCount(), store.getColumnCount(), bits);
+        for (int r = 0; r < packed.rows; r++) {
+            for (int c = 0; c < packed.cols; c++) {
+                packed.set(r, c, store.get(r, c));
+            }
+        }
+        return packed;
+    }
+
+    public static PackedFeatureStore pack(int[][] features) {
+        int bits = requiredBits(features);
+        if (bits == -1) {
+            throw new IllegalArgumentException("Feature values must be in 0..255 to be packed");
+        }
+        int cols = features.length == 0 ? 0 : features[0].length;
+        PackedFeatureStore packed = new PackedFeatureStore(features.length, cols, bits);
+        for (int r = 0; r < features.length; r++) {
+            if (features[r].length != cols) {
+                throw new IllegalArgumentException("Row " + r + " has " + features[r].length + " columns, expected " + cols);
+            }
+            for (int c = 0; c < cols; c++) {
+                packed.set(r, c, features[r][c]);
+            }
+        }
+        return packed;
+    }
+
+    // Packed copy of the store if all of its values fit in 0..255, otherwise the store itself
+    public static FeatureStore packIfFits(FeatureStore store) {
+        return requiredBits(store) == -1 ? store : pack(store);
+    }
+
+    public static FeatureStore packIfFits(int[][] features) {
+        return requiredBits(features) == -1 ? DenseMatrix.of(features) : pack(features);
+    }
+
+    private void set(int row, int col, int value) {
+        if (bitsPerValue == BYTE_BITS) {
+            data[row * bytesPerRow + col] = (byte) value;
+        } else {
+            int index = row * bytesPerRow + (col >> 1);
+            if ((col & 1) == 0) {
+                data[index] = (byte) ((data[index] & 0xF0) | value);
+            } else {
+                data[index] = (byte) ((data[index] & 0x0F) | (value << 4));
+            }
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return cols;
+    }
+
+    public int getBitsPerValue() {
+        return bitsPerValue;
+    }
+
+    // The packed bytes, for kernels that index them directly together with rowOffset()
+    public byte[] getData() {
+        return data;
+    }
+
+    public int rowOffset(int row) {
+        return row * bytesPerRow;
+    }
+
+    @Override
+    public int get(int row, int col) {
+        if (bitsPerValue == BYTE_BITS) {
+            return data[row * bytesPerRow + col] & 0xFF;
+        }
+        int b = data[row * bytesPerRow + (col >> 1)] & 0xFF;
+        return (col & 1) == 0 ? b & 0x0F : b >>> 4;
+    }
+
+    @Override
+    public void copyRow(int row, int[] dest) {
+        for (int c = 0; c < cols; c++) {
+            dest[c] = get(row, c);
+        }
+    }
+
+    @Override
+    public long squaredDistance(int[] query, int queryOffset, int row) {
+        if (bitsPerValue == BYTE_BITS) {
+            return DistanceCalculator.squaredDistanceBytes(query, queryOffset, data, row * bytesPerRow, cols);
+        }
+        return DistanceCalculator.squaredDistanceNibbles(query, queryOffset, data, row * bytesPerRow, cols);
+    }
+
+    @Override
+    public long squaredDistance(int[] query, int queryOffset, int row, long bound) {
+        if (bitsPerValue == BYTE_BITS) {
+            return DistanceCalculator.squaredDistanceBytes(query, queryOffset, data, row * bytesPerRow, cols, bound);
+        }
+        return DistanceCalculator.squaredDistanceNibbles(query, queryOffset, data, row * bytesPerRow, cols, bound);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return data.length;
+    }
+}
@@ -0,0 +1,215 @@
+public class PcaProjection {
+    // Linear projection onto the leading principal components of a training set, with integer output.
+    // All output coordinates share one scale factor, so projected squared distances stay proportional
+    // to distances in the component space, and each is shifted so the training rows land in 0..levels.
+    // With levels <= 255 the projected training set fits the byte-packed feature store.
+    private static final int MAX_SWEEPS = 100;
+
+    private final int inputDimension;
+    private final int outputDimension;
+    private final double[] weights; // outputDimension x inputDimension, row-major, scale included
+    private final double[] offsets; // per output coordinate: centering and shift, scale included
+    private final double[] variances; // eigenvalues of the covariance, descending
+
+    private PcaProjection(int inputDimension, int outputDimension, double[] weights, double[] offsets, double[] variances) {
+        this.inputDimension = inputDimension;
+        this.outputDimension = outputDimension;
+        this.weights = weights;
+        this.offsets = offsets;
+        this.variances = variances;
+    }
+
+    // Learns the outputDimension leading components of the rows of data
+    public static PcaProjection fit(FeatureStore data, int outputDimension, int levels) {
+        int n = data.getRowCount();
+        int d = data.getColumnCount();
+        if (outputDimension < 1 || outputDimension > d) {
+            throw new IllegalArgumentException("Output dimension must be in 1.." + d + ", got " + outputDimension);
+        }
+
+        double[] mean = new double[d];
+        for (int r = 0; r < n; r++) {
+            for (int j = 0; j < d; j++) {
+                mean[j] += data.get(r, j);
+            }
+        }
+        for (int j = 0; j < d; j++) {
+            mean[j] /= Math.max(1, n);
+        }
+
+        // Covariance (upper triangle, then mirrored)
+        double[][] covariance = new double[d][d];
+        double[] centered = new double[d];
+        for (int r = 0; r < n; r++) {
+            for (int j = 0; j < d; j++) {
+                centered[j] = data.get(r, j) - mean[j];
+            }
+            for (int i = 0; i < d; i++) {
+                double ci = centered[i];
+                if (ci == 0) continue;
+                double[] row = covariance[i];
+                for (int j = i; j < d; j++) {
+                    row[j] += ci * centered[j];
+                }
+            }
+        }
+        for (int i = 0; i < d; i++) {
+            for (int j = i; j < d; j++) {
+                covariance[i][j] /= Math.max(1, n - 1);
+                covariance[j][i] = covariance[i][j];
+            }
+        }
+
+        double[][] vectors = new double[d][d];
+        double[] eigenvalues = new double[d];
+        jacobi(covariance, vectors, eigenvalues);
+
+        // Components by decreasing variance
+        Integer[] order = new Integer[d];
+        for (int i = 0; i < d; i++) {
+            order[i] = i;
+        }
+        java.util.Arrays.sort(order, (a, b) -> Double.compare(eigenvalues[b], eigenvalues[a]));
+        double[] components = new double[outputDimension * d];
+        double[] variances = new double[d];
+        for (int c = 0; c < d; c++) {
+            variances[c] = Math.max(0, eigenvalues[order[c]]);
+        }
+        for (int c = 0; c < outputDimension; c++) {
+            for (int j = 0; j < d; j++) {
+                components[c * d + j] = vectors[j][order[c]];
+            }
+        }
+
+        // Range of the centered training projections, for the shared scale and per-coordinate shift
+        double[] min = new double[outputDimension];
+        double[] max = new double[outputDimension];
+        java.util.Arrays.fill(min, Double.POSITIVE_INFINITY);
+        java.util.Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < outputDimension; c++) {
+                double value = 0;
+                for (int j = 0; j < d; j++) {
+                    value += (data.get(r, j) - mean[j]) * components[c * d + j];
+                }
+                min[c] = Math.min(min[c], value);
+                max[c] = Math.max(max[c], value);
+            }
+        }
+        double range = 0;
+        for (int c = 0; c < outputDimension; c++) {
+            range = Math.max(range, max[c] - min[c]);
+        }
+        double scale = range > 0 ? levels / range : 1;
+
+        double[] offsets = new double[outputDimension];
+        for (int c = 0; c < outputDimension; c++) {
+            double centering = 0;
+            for (int j = 0; j < d; j++) {
+                components[c * d + j] *= scale;
+                centering += mean[j] * components[c * d + j];
+            }
+            offsets[c] = n > 0 ? -centering - min[c] * scale : -centering;
+        }
+        return new PcaProjection(d, outputDimension, components, offsets, variances);
+    }
+
+    public int getInputDimension() {
+        return inputDimension;
+    }
+
+    public int getOutputDimension() {
+        return outputDimension;
+    }
+
+    // Share of the training variance captured by the kept components
+    public double getExplainedVarianceRatio() {
+        double kept = 0;
+        double total = 0;
+        for (int c = 0; c < variances.length; c++) {
+            total += variances[c];
+            if (c < outputDimension) {
+                kept += variances[c];
+            }
+        }
+        return total == 0 ? 1 : kept / total;
+    }
+
+    // Writes the projection of input[inputOffset, inputOffset + inputDimension) to output[outputOffset, ...)
+    public void project(int[] input, int inputOffset, int[] output, int outputOffset) {
+        for (int c = 0; c < outputDimension; c++) {
+            double value = offsets[c];
+            int w = c * inputDimension;
+            for (int j = 0; j < inputDimension; j++) {
+                value += input[inputOffset + j] * weights[w + j];
+            }
+            output[outputOffset + c] = (int) Math.round(value);
+        }
+    }
+
+    // Projects every row of data into a new matrix
+    public DenseMatrix projectAll(DenseMatrix data) {
+        DenseMatrix projected = new DenseMatrix(data.getRowCount(), outputDimension);
+        for (int r = 0; r < data.getRowCount(); r++) {
+            project(data.getData(), data.rowOffset(r), projected.getData(), projected.rowOffset(r));
+        }
+        return projected;
+    }
+
+    // Cyclic Jacobi eigenvalue iteration for a symmetric matrix a (destroyed): eigenvalues end up on
+    // the diagonal and are copied to eigenvalues, eigenvectors are the columns of vectors
+    private static void jacobi(double[][] a, double[][] vectors, double[] eigenvalues) {
+        int d = a.length;
+        for (int i = 0; i < d; i++) {
+            vectors[i][i] = 1;
+        }
+        double total = 0;
+        for (int i = 0; i < d; i++) {
+            for (int j = 0; j < d; j++) {
+                total += a[i][j] * a[i][j];
+            }
+        }
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            double off = 0;
+            for (int p = 0; p < d; p++) {
+                for (int q = p + 1; q < d; q++) {
+                    off += a[p][q] * a[p][q];
+                }
+            }
+            if (off <= 1e-24 * total) {
+                break;
+            }
+            for (int p = 0; p < d; p++) {
+                for (int q = p + 1; q < d; q++) {
+                    if (a[p][q] == 0) continue;
+                    double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+                    if (theta == 0) t = 1;
+                    double c = 1 / Math.sqrt(t * t + 1);
+                    double s = t * c;
+                    for (int k = 0; k < d; k++) {
+                        double akp = a[k][p];
+                        double akq = a[k][q];
+                        a[k][p] = c * akp - s * akq;
+                        a[k][q] = s * akp + c * akq;
+                    }
+                    for (int k = 0; k < d; k++) {
+                        double apk = a[p][k];
+                        double aqk = a[q][k];
+                        a[p][k] = c * apk - s * aqk;
+                        a[q][k] = s * apk + c * aqk;
+                    }
+                    for (int k = 0; k < d; k++) {
+                        double vkp = vectors[k][p];
+                        double vkq = vectors[k][q];
+                        vectors[k][p] = c * vkp - s * vkq;
+                        vectors[k][q] = s * vkp + c * vkq;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < d; i++) {
+            eigenvalues[i] = a[i][i];
+        }
+    }
+}
@@ -0,0 +1,118 @@
+public class ProjectedKNearestNeighborsClassifier implements Classifier {
+    // Two-stage weighted k-NN. Training rows are projected onto their leading principal components and
+    // stored one byte per coordinate; a query is projected the same way, the shortlistSize rows nearest
+    // to it in that space are kept, and only those are re-ranked with exact distances on the original
+    // features before the same distance-weighted vote as WeightedKNearestNeighborsClassifier.
+    // The first stage touches targetDimension bytes per row instead of a full feature vector.
+    // Projected query coordinates are clamped to [-LEVELS, 2 * LEVELS], so the int distances of the
+    // first stage cannot overflow; this only affects queries far outside the training data.
+    private static final int LEVELS = 255; // quantization levels of the projected coordinates
+
+    private final int k;
+    private final int numClasses;
+    private final int targetDimension;
+    private final int shortlistSize;
+    private DenseMatrix references; // original training vectors, for the exact re-ranking
+    private int[] trainingLabels;
+    private PcaProjection projection;
+    private byte[] projected; // training rows in the projected space, row-major, unsigned bytes
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public ProjectedKNearestNeighborsClassifier(int k, int numClasses, int targetDimension, int shortlistSize) {
+        if (shortlistSize < k) {
+            throw new IllegalArgumentException("Shortlist size " + shortlistSize + " is smaller than k = " + k);
+        }
+        this.k = k;
+        this.numClasses = numClasses;
+        this.targetDimension = targetDimension;
+        this.shortlistSize = shortlistSize;
+    }
+
+    // The projection learned by train, or null before training
+    public PcaProjection getProjection() {
+        return projection;
+    }
+
+    @Override
+    public void train(int[][] features, int[] labels) {
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        this.references = features;
+        this.trainingLabels = labels;
+        this.projection = PcaProjection.fit(features, Math.min(targetDimension, features.getColumnCount()), LEVELS);
+        int[] projectedRows = projection.projectAll(features).getData();
+        this.projected = new byte[projectedRows.length];
+        for (int i = 0; i < projectedRows.length; i++) {
+            projected[i] = (byte) projectedRows[i]; // 0..LEVELS by construction
+        }
+    }
+
+    @Override
+    public int predict(int[] testImage) {
+        return predictAt(testImage, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    private int predictAt(int[] testImage, int testOffset) {
+        Scratch buffers = scratch.get();
+        int[] query = buffers.projectedQuery;
+        int d = projection.getOutputDimension();
+        projection.project(testImage, testOffset, query, 0);
+        for (int j = 0; j < d; j++) {
+            query[j] = Math.max(-LEVELS, Math.min(2 * LEVELS, query[j]));
+        }
+
+        // Stage 1: shortlist in the projected space
+        long[] candidateDistances = buffers.candidateDistances;
+        int[] candidateRows = buffers.candidateRows;
+        int candidates = 0;
+        int n = references.getRowCount();
+        byte[] data = projected;
+        for (int i = 0, base = 0; i < n; i++, base += d) {
+            int distance = 0;
+            for (int j = 0; j < d; j++) {
+                int diff = query[j] - (data[base + j] & 0xFF);
+                distance += diff * diff;
+            }
+            long bound = candidates < shortlistSize ? Long.MAX_VALUE : candidateDistances[0];
+            if (candidates < shortlistSize || distance < bound) {
+                candidates = NeighborHeap.offer(
+                    candidateDistances, candidateRows, candidates, shortlistSize, distance, i);
+            }
+        }
+
+        // Stage 2: exact distances for the shortlist; candidates are in heap order, so ties are
+        // resolved by row explicitly to keep the earlier training row
+        long[] nearestDistances = buffers.distances;
+        int[] nearestRows = buffers.rows;
+        int found = 0;
+        for (int c = 0; c < candidates; c++) {
+            int row = candidateRows[c];
+            long bound = found < k ? Long.MAX_VALUE : nearestDistances[0];
+            long distance = references.squaredDistance(testImage, testOffset, row, bound);
+            if (found < k || NeighborHeap.farther(bound, nearestRows[0], distance, row)) {
+                found = NeighborHeap.offer(nearestDistances, nearestRows, found, k, distance, row);
+            }
+        }
+
+        NeighborHeap.sortAscending(nearestDistances, nearestRows, found);
+        return NeighborHeap.vote(nearestDistances, nearestRows, found, trainingLabels, buffers.weights);
+    }
+
+    // Per-thread buffers reused by every predict call on this classifier
+    private final class Scratch {
+        final int[] projectedQuery = new int[targetDimension];
+        final long[] candidateDistances = new long[shortlistSize];
+        final int[] candidateRows = new int[shortlistSize];
+        final long[] distances = new long[k];
+        final int[] rows = new int[k];
+        final double[] weights = new double[numClasses];
+    }
+}
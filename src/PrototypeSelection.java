@@ -0,0 +1,240 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class PrototypeSelection {
+    // Training-set reduction for the instance-based classifiers, run once in train.
+    //  - edit (Wilson's edited nearest neighbor): drops every row whose editK nearest other rows
+    //    outvote its own label, which removes label noise and smooths the class boundaries
+    //  - condense (Hart's condensed nearest neighbor): keeps only the rows that 1-NN over the kept
+    //    rows needs to classify every (edited) row correctly, so class interiors are thinned out
+    // With both, editing runs first. Both passes are split across the common ForkJoinPool (or the
+    // pool select is called from). Editing is independent per row. Hart's condensing is sequential
+    // by nature: here each chunk of rows is classified against the prototypes kept so far in
+    // parallel, and only the misclassified rows are then rechecked, in order, against the prototypes
+    // added within the chunk, which gives exactly the sequential result.
+    public static final int DEFAULT_EDIT_K = 3;
+    private static final int CHUNK_ROWS = 256;
+    private static final int TASK_ROWS = 32;
+
+    private final boolean edit;
+    private final int editK;
+    private final boolean condense;
+
+    // Statistics of the last select call
+    private int originalRows;
+    private int editedRows;
+    private int retainedRows;
+    private int condensingPasses;
+    private long selectionNanos;
+
+    public PrototypeSelection(boolean edit, boolean condense) {
+        this(edit, DEFAULT_EDIT_K, condense);
+    }
+
+    public PrototypeSelection(boolean edit, int editK, boolean condense) {
+        if (edit && editK < 1) {
+            throw new IllegalArgumentException("editK must be at least 1");
+        }
+        this.edit = edit;
+        this.editK = editK;
+        this.condense = condense;
+    }
+
+    // Indices of the rows to keep, ascending
+    public int[] select(FeatureStore data, int[] labels) {
+        long start = System.nanoTime();
+        int n = data.getRowCount();
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = i;
+        }
+        if (edit) {
+            rows = edit(data, labels, rows);
+        }
+        int afterEditing = rows.length;
+        int passes = 0;
+        if (condense && rows.length > 0) {
+            int[] prototypes = new int[rows.length];
+            int[] count = new int[1];
+            passes = condense(data, labels, rows, prototypes, count);
+            rows = Arrays.copyOf(prototypes, count[0]);
+            Arrays.sort(rows);
+        }
+        this.originalRows = n;
+        this.editedRows = afterEditing;
+        this.retainedRows = rows.length;
+        this.condensingPasses = passes;
+        this.selectionNanos = System.nanoTime() - start;
+        return rows;
+    }
+
+    // labels[rows[i]] for every i
+    public static int[] selectLabels(int[] labels, int[] rows) {
+        int[] selected = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            selected[i] = labels[rows[i]];
+        }
+        return selected;
+    }
+
+    public int getOriginalRows() {
+        return originalRows;
+    }
+
+    // Rows left after editing (all rows without edit)
+    public int getEditedRows() {
+        return editedRows;
+    }
+
+    public int getRetainedRows() {
+        return retainedRows;
+    }
+
+    public double getRetainedFraction() {
+        return originalRows == 0 ? 1 : (double) retainedRows / originalRows;
+    }
+
+    public int getCondensingPasses() {
+        return condensingPasses;
+    }
+
+    public long getSelectionTimeMillis() {
+        return selectionNanos / 1000000;
+    }
+
+    // One-line report of the last select call, e.g. for experiment logs
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Prototypes: kept %d of %d rows (%.1f%%)", retainedRows, originalRows,
+            100 * getRetainedFraction()));
+        if (edit) {
+            summary.append(", ").append(originalRows - editedRows).append(" edited out");
+        }
+        if (condense) {
+            summary.append(", ").append(condensingPasses).append(" condensing passes");
+        }
+        return summary.append(" in ").append(getSelectionTimeMillis()).append(" ms").toString();
+    }
+
+    // Rows whose own label is not outvoted by their editK nearest other rows
+    private int[] edit(FeatureStore data, int[] labels, int[] rows) {
+        int numClasses = 0;
+        for (int row : rows) {
+            numClasses = Math.max(numClasses, labels[row] + 1);
+        }
+        int classes = numClasses;
+        boolean[] keep = new boolean[rows.length];
+        int tasks = (rows.length + TASK_ROWS - 1) / TASK_ROWS;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int[] query = new int[data.getColumnCount()];
+            long[] distances = new long[editK];
+            int[] neighbors = new int[editK];
+            int[] votes = new int[classes];
+            int end = Math.min(rows.length, (task + 1) * TASK_ROWS);
+            for (int i = task * TASK_ROWS; i < end; i++) {
+                data.copyRow(rows[i], query);
+                int found = 0;
+                for (int j = 0; j < rows.length; j++) {
+                    if (j == i) continue;
+                    long bound = found < editK ? Long.MAX_VALUE : distances[0];
+                    long distance = data.squaredDistance(query, 0, rows[j], bound);
+                    if (found < editK || distance < bound) {
+                        found = NeighborHeap.offer(distances, neighbors, found, editK, distance, rows[j]);
+                    }
+                }
+                Arrays.fill(votes, 0);
+                for (int j = 0; j < found; j++) {
+                    votes[labels[neighbors[j]]]++;
+                }
+                int own = votes[labels[rows[i]]];
+                boolean outvoted = false;
+                for (int vote : votes) {
+                    outvoted |= vote > own;
+                }
+                keep[i] = !outvoted;
+            }
+        });
+        int kept = 0;
+        int[] result = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            if (keep[i]) {
+                result[kept++] = rows[i];
+            }
+        }
+        return Arrays.copyOf(result, kept);
+    }
+
+    // Hart's condensing over rows: prototypes[0, count[0]) ends up holding the kept rows in the order
+    // they were added. Passes repeat until one adds nothing; returns the number of passes.
+    private int condense(FeatureStore data, int[] labels, int[] rows, int[] prototypes, int[] count) {
+        boolean[] isPrototype = new boolean[rows.length];
+        prototypes[0] = rows[0];
+        isPrototype[0] = true;
+        count[0] = 1;
+        long[] nearestDistance = new long[CHUNK_ROWS];
+        int[] nearestLabel = new int[CHUNK_ROWS];
+        int[] query = new int[data.getColumnCount()];
+        int passes = 0;
+        boolean added;
+        do {
+            passes++;
+            added = false;
+            for (int chunkStart = 0; chunkStart < rows.length; chunkStart += CHUNK_ROWS) {
+                int chunkEnd = Math.min(rows.length, chunkStart + CHUNK_ROWS);
+                int fixed = count[0];
+                nearestInPrototypes(data, labels, rows, isPrototype, prototypes, fixed, chunkStart, chunkEnd,
+                    nearestDistance, nearestLabel);
+
+                // In order: the nearest prototype is either among the fixed ones or added since
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    if (isPrototype[i]) continue;
+                    long best = nearestDistance[i - chunkStart];
+                    int label = nearestLabel[i - chunkStart];
+                    if (count[0] > fixed) {
+                        data.copyRow(rows[i], query);
+                        for (int p = fixed; p < count[0]; p++) {
+                            long distance = data.squaredDistance(query, 0, prototypes[p], best);
+                            if (distance < best) {
+                                best = distance;
+                                label = labels[prototypes[p]];
+                            }
+                        }
+                    }
+                    if (label != labels[rows[i]]) {
+                        prototypes[count[0]++] = rows[i];
+                        isPrototype[i] = true;
+                        added = true;
+                    }
+                }
+            }
+        } while (added);
+        return passes;
+    }
+
+    // Distance to and label of the nearest of prototypes[0, prototypeCount) for the non-prototype
+    // rows in [chunkStart, chunkEnd), in parallel; ties go to the earlier prototype
+    private static void nearestInPrototypes(FeatureStore data, int[] labels, int[] rows, boolean[] isPrototype,
+                                            int[] prototypes, int prototypeCount, int chunkStart, int chunkEnd,
+                                            long[] nearestDistance, int[] nearestLabel) {
+        int tasks = (chunkEnd - chunkStart + TASK_ROWS - 1) / TASK_ROWS;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int[] query = new int[data.getColumnCount()];
+            int end = Math.min(chunkEnd, chunkStart + (task + 1) * TASK_ROWS);
+            for (int i = chunkStart + task * TASK_ROWS; i < end; i++) {
+                if (isPrototype[i]) continue;
+                data.copyRow(rows[i], query);
+                long best = Long.MAX_VALUE;
+                int label = -1;
+                for (int p = 0; p < prototypeCount; p++) {
+                    long distance = data.squaredDistance(query, 0, prototypes[p], best);
+                    if (distance < best) {
+                        best = distance;
+                        label = labels[prototypes[p]];
+                    }
+                }
+                nearestDistance[i - chunkStart] = best;
+                nearestLabel[i - chunkStart] = label;
+            }
+        });
+    }
+}
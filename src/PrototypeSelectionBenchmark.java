@@ -0,0 +1,112 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+public class PrototypeSelectionBenchmark {
+    // Compares 1-NN and weighted k-NN trained on the full training set with the same classifiers on
+    // edited and/or condensed prototypes, on both folds of the digit dataset. For every reduction it
+    // reports the retained fraction, the selection time on one thread and on --threads threads,
+    // test accuracy, and the mean single-query predict latency with its speedup over the full set.
+    // Usage: java PrototypeSelectionBenchmark [--k K] [--edit-k E] [--threads T]
+    private static final String[] NAMES = {"full", "edited", "condensed", "edited + condensed"};
+
+    public static void main(String[] args) {
+        int k = intOption(args, "--k", 3);
+        int editK = intOption(args, "--edit-k", PrototypeSelection.DEFAULT_EDIT_K);
+        int threads = intOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+        Dataset dataset = Dataset.load("datasets/dataSet1.csv", "datasets/dataSet2.csv");
+        int numClasses = dataset.getNumClasses();
+
+        System.out.println("Prototype selection benchmark: 1-NN and weighted " + k + "-NN, edit k=" + editK
+            + ", " + threads + " selection threads");
+        for (int fold = 0; fold < dataset.getFoldCount(); fold++) {
+            Dataset.Fold split = dataset.getFold(fold);
+            DenseMatrix train = split.getTrainMatrix();
+            int[] trainLabels = split.getTrainLabels();
+            DenseMatrix test = split.getTestMatrix();
+            int[] testLabels = split.getTestLabels();
+
+            System.out.println();
+            System.out.println("Fold " + (fold + 1) + ": " + train.getRowCount() + " training rows, "
+                + test.getRowCount() + " test rows");
+            System.out.println(String.format("%-20s %8s %9s %9s %8s | %8s %9s %8s | %8s %9s %8s",
+                "reduction", "kept", "1 thr ms", "N thr ms", "build x",
+                "1-NN acc", "mean us", "speedup", k + "-NN acc", "mean us", "speedup"));
+            double[] fullLatency = new double[2];
+            for (int mode = 0; mode < NAMES.length; mode++) {
+                boolean edit = (mode & 1) != 0;
+                boolean condense = (mode & 2) != 0;
+                PrototypeSelection selection = mode == 0 ? null : new PrototypeSelection(edit, editK, condense);
+
+                // Selection alone, sequential and parallel
+                long sequentialMillis = 0;
+                long parallelMillis = 0;
+                int[] kept = null;
+                if (selection != null) {
+                    selectIn(1, selection, train, trainLabels); // warm-up
+                    sequentialMillis = timeSelection(1, selection, train, trainLabels);
+                    parallelMillis = timeSelection(threads, selection, train, trainLabels);
+                    kept = selectIn(threads, selection, train, trainLabels);
+                }
+                DenseMatrix reduced = kept == null ? train : train.selectRows(kept);
+                int[] reducedLabels = kept == null ? trainLabels : PrototypeSelection.selectLabels(trainLabels, kept);
+
+                Classifier[] classifiers = {new NearestNeighborClassifier(), new WeightedKNearestNeighborsClassifier(k, numClasses)};
+                StringBuilder line = new StringBuilder(String.format("%-20s %7.1f%% %9s %9s %8s", NAMES[mode],
+                    100.0 * reduced.getRowCount() / train.getRowCount(),
+                    selection == null ? "-" : String.valueOf(sequentialMillis),
+                    selection == null ? "-" : String.valueOf(parallelMillis),
+                    selection == null ? "-" : String.format("%.2fx", (double) sequentialMillis / Math.max(1, parallelMillis))));
+                for (int c = 0; c < classifiers.length; c++) {
+                    Classifier classifier = classifiers[c];
+                    classifier.train(reduced, reducedLabels);
+                    LatencyHistogram latency = new LatencyHistogram();
+                    int correct = 0;
+                    for (int i = 0; i < test.getRowCount(); i++) {
+                        long start = System.nanoTime();
+                        int predicted = classifier.predict(test, i);
+                        latency.record(System.nanoTime() - start);
+                        if (predicted == testLabels[i]) {
+                            correct++;
+                        }
+                    }
+                    if (mode == 0) {
+                        fullLatency[c] = latency.getMean();
+                    }
+                    line.append(String.format(" | %7.2f%% %9.1f %7.1fx", 100.0 * correct / test.getRowCount(),
+                        latency.getMean() / 1e3, fullLatency[c] / Math.max(1, latency.getMean())));
+                }
+                System.out.println(line);
+            }
+        }
+    }
+
+    private static long timeSelection(int threads, PrototypeSelection selection, DenseMatrix train, int[] labels) {
+        long start = System.nanoTime();
+        selectIn(threads, selection, train, labels);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    // Runs select inside a pool of the given size, so its parallel passes use that many threads
+    private static int[] selectIn(int threads, PrototypeSelection selection, DenseMatrix train, int[] labels) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> selection.select(train, labels)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during prototype selection", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Prototype selection failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -22,37 +22,82 @@ public class RandomForestClassifier implements Classifier {
 
     @Override
     public void train(int[][] features, int[] labels) {
+        train(DenseMatrix.of(features), labels);
+    }
+
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
         trees = new ArrayList<>();
-        int n = features.length;
-        int d = features[0].length;
+        int n = features.getRowCount();
+        int d = features.getColumnCount();
         int sampleSize = (int) (n * sampleRatio);
         int maxFeatures = (int) (d * maxFeaturesRatio);
 
         Random rand = new Random();
 
         for (int t = 0; t < numTrees; t++) {
-            int[][] sampledFeatures = new int[sampleSize][d];
-            int[] sampledLabels = new int[sampleSize];
-
-            // Bootstrap sampling
+            // Bootstrap sampling: the tree trains on row indices into the shared matrix, no rows are copied
+            int[] sampleIndices = new int[sampleSize];
             for (int i = 0; i < sampleSize; i++) {
-                int idx = rand.nextInt(n);
-                sampledFeatures[i] = features[idx];
-                sampledLabels[i] = labels[idx];
+                sampleIndices[i] = rand.nextInt(n);
             }
 
             DecisionTreeClassifier tree = new DecisionTreeClassifier(numClasses, maxDepth, minSamplesSplit, minSamplesLeaf, maxFeatures, rand);
-            tree.train(sampledFeatures, sampledLabels);
+            tree.train(features, labels, sampleIndices);
             trees.add(tree);
         }
     }
 
     @Override
     public int predict(int[] sample) {
+        return predictAt(sample, 0);
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    // Runs each tree over the whole batch (level-wise) and accumulates the votes per sample
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int n = samples.getRowCount();
+        int[] classCounts = new int[n * numClasses];
+        int[] treePredictions = new int[n];
+        for (DecisionTreeClassifier tree : trees) {
+            tree.predictBatch(samples, treePredictions);
+            for (int i = 0; i < n; i++) {
+                classCounts[i * numClasses + treePredictions[i]]++;
+            }
+        }
+
+        // Majority vote
+        int[] predictions = new int[n];
+        for (int i = 0; i < n; i++) {
+            int base = i * numClasses;
+            int bestClass = 0;
+            int bestCount = classCounts[base];
+            for (int c = 1; c < numClasses; c++) {
+                if (classCounts[base + c] > bestCount) {
+                    bestCount = classCounts[base + c];
+                    bestClass = c;
+                }
+            }
+            predictions[i] = bestClass;
+        }
+        return predictions;
+    }
+
+    private int predictAt(int[] sample, int offset) {
         // Aggregate predictions from all trees
         int[] classCounts = new int[numClasses];
         for (DecisionTreeClassifier tree : trees) {
-            int prediction = tree.predict(sample);
+            int prediction = tree.predictAt(sample, offset);
             classCounts[prediction]++;
         }
 
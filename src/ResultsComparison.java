@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class ResultsComparison {
+    // Compares the per-classifier mean rows of a run against a baseline run and flags regressions:
+    // accuracy that dropped by more than accuracyThreshold percentage points, and times, latency
+    // percentiles or throughput that got worse by more than timeThreshold percent.
+    public static final double DEFAULT_TIME_THRESHOLD = 10.0;
+    public static final double DEFAULT_ACCURACY_THRESHOLD = 0.5;
+
+    // Timings below this are mostly timer resolution and scheduling noise
+    private static final double MIN_COMPARABLE_MS = 5.0;
+    private static final double MIN_COMPARABLE_US = 1.0;
+
+    private final double timeThreshold;
+    private final double accuracyThreshold;
+
+    public ResultsComparison(double timeThreshold, double accuracyThreshold) {
+        this.timeThreshold = timeThreshold;
+        this.accuracyThreshold = accuracyThreshold;
+    }
+
+    // Returns one message per regression; lines about classifiers missing on either side are
+    // reported through notes
+    public List<String> compare(ResultsFile baseline, ResultsFile current, List<String> notes) {
+        Map<String, ResultsFile.Row> baselineMeans = means(baseline);
+        Map<String, ResultsFile.Row> currentMeans = means(current);
+        List<String> regressions = new ArrayList<>();
+
+        for (Map.Entry<String, ResultsFile.Row> entry : currentMeans.entrySet()) {
+            String name = entry.getKey();
+            ResultsFile.Row now = entry.getValue();
+            ResultsFile.Row before = baselineMeans.get(name);
+            if (before == null) {
+                notes.add(name + ": not in baseline");
+                continue;
+            }
+            if (before.accuracy - now.accuracy > accuracyThreshold) {
+                regressions.add(String.format(Locale.ROOT, "%s: accuracy %.2f%% -> %.2f%%", name, before.accuracy, now.accuracy));
+            }
+            checkIncrease(regressions, name, "training time", before.trainingMs, now.trainingMs, "ms", MIN_COMPARABLE_MS);
+            checkIncrease(regressions, name, "evaluation time", before.evaluationMs, now.evaluationMs, "ms", MIN_COMPARABLE_MS);
+            checkIncrease(regressions, name, "p50 latency", before.p50Us, now.p50Us, "us", MIN_COMPARABLE_US);
+            checkIncrease(regressions, name, "p99 latency", before.p99Us, now.p99Us, "us", MIN_COMPARABLE_US);
+            if (before.throughput > 0 && now.throughput < before.throughput * (1 - timeThreshold / 100)) {
+                regressions.add(String.format(Locale.ROOT, "%s: throughput %.0f/s -> %.0f/s (%+.1f%%)", name,
+                    before.throughput, now.throughput, percentChange(before.throughput, now.throughput)));
+            }
+        }
+        for (String name : baselineMeans.keySet()) {
+            if (!currentMeans.containsKey(name)) {
+                notes.add(name + ": missing from this run");
+            }
+        }
+        return regressions;
+    }
+
+    private void checkIncrease(List<String> regressions, String name, String metric,
+                               double before, double now, String unit, double minComparable) {
+        if (Double.isNaN(before) || Double.isNaN(now) || Math.max(before, now) < minComparable) {
+            return;
+        }
+        if (now > Math.max(before, minComparable) * (1 + timeThreshold / 100)) {
+            regressions.add(String.format(Locale.ROOT, "%s: %s %.1f %s -> %.1f %s (%+.1f%%)", name, metric,
+                before, unit, now, unit, percentChange(before, now)));
+        }
+    }
+
+    private static double percentChange(double before, double now) {
+        return before == 0 ? 0 : (now - before) / before * 100;
+    }
+
+    private static Map<String, ResultsFile.Row> means(ResultsFile results) {
+        Map<String, ResultsFile.Row> means = new LinkedHashMap<>();
+        for (ResultsFile.Row row : results.getRows()) {
+            if (row.isMean()) {
+                means.put(row.getExperiment(), row);
+            }
+        }
+        return means;
+    }
+
+    // Usage: java ResultsComparison <baseline.csv> <current.csv> [--threshold pct] [--accuracy-threshold points]
+    // Exits with status 1 when a regression is found.
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java ResultsComparison <baseline.csv> <current.csv> "
+                + "[--threshold pct] [--accuracy-threshold points]");
+            System.exit(2);
+        }
+        double timeThreshold = DEFAULT_TIME_THRESHOLD;
+        double accuracyThreshold = DEFAULT_ACCURACY_THRESHOLD;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--threshold")) {
+                timeThreshold = Double.parseDouble(args[i + 1]);
+            } else if (args[i].equals("--accuracy-threshold")) {
+                accuracyThreshold = Double.parseDouble(args[i + 1]);
+            }
+        }
+
+        try {
+            ResultsFile baseline = ResultsFile.read(args[0]);
+            ResultsFile current = ResultsFile.read(args[1]);
+            List<String> notes = new ArrayList<>();
+            List<String> regressions = new ResultsComparison(timeThreshold, accuracyThreshold)
+                .compare(baseline, current, notes);
+            for (String note : notes) {
+                System.out.println("Note: " + note);
+            }
+            if (regressions.isEmpty()) {
+                System.out.println("No regressions against " + args[0]);
+            } else {
+                System.out.println("Regressions against " + args[0] + ":");
+                for (String regression : regressions) {
+                    System.out.println("  " + regression);
+                }
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading results: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class ResultsFile {
+    // Machine-readable run results: one CSV row per classifier and fold, plus a "mean" row per
+    // classifier. Columns that were not measured are left empty.
+    public static final String MEAN_FOLD = "mean";
+    private static final String HEADER =
+        "experiment,fold,accuracy,training_ms,evaluation_ms,throughput_per_s,p50_us,p90_us,p99_us,p999_us";
+
+    private final List<Row> rows = new ArrayList<>();
+
+    public static class Row {
+        final String experiment;
+        final String fold;           // fold number from 1, or MEAN_FOLD
+        final double accuracy;       // percent
+        final double trainingMs;     // NaN when training was not timed
+        final double evaluationMs;
+        final double throughput;     // evaluated samples per second
+        final double p50Us, p90Us, p99Us, p999Us; // NaN when latency was not recorded
+
+        public Row(String experiment, String fold, double accuracy, double trainingMs, double evaluationMs,
+                   double throughput, double p50Us, double p90Us, double p99Us, double p999Us) {
+            this.experiment = experiment;
+            this.fold = fold;
+            this.accuracy = accuracy;
+            this.trainingMs = trainingMs;
+            this.evaluationMs = evaluationMs;
+            this.throughput = throughput;
+            this.p50Us = p50Us;
+            this.p90Us = p90Us;
+            this.p99Us = p99Us;
+            this.p999Us = p999Us;
+        }
+
+        // Throughput is taken from the batch timings when the classifier was instrumented,
+        // otherwise from the millisecond evaluation time
+        public static Row of(String experiment, String fold, double accuracy, double trainingMs, double evaluationMs,
+                             int evaluatedSamples, ClassifierMetrics metrics) {
+            double throughput = metrics != null && metrics.getBatchCount() > 0
+                ? metrics.getBatchThroughput()
+                : evaluatedSamples * 1000.0 / Math.max(evaluationMs, 1);
+            return withLatency(experiment, fold, accuracy, trainingMs, evaluationMs, throughput, metrics);
+        }
+
+        // Summary row of an experiment: mean fold throughput, latency over all folds' predictions
+        public static Row mean(String experiment, List<Row> folds, double accuracy, double trainingMs,
+                               double evaluationMs, ClassifierMetrics metrics) {
+            double throughput = 0;
+            for (Row row : folds) {
+                throughput += row.throughput;
+            }
+            throughput /= Math.max(1, folds.size());
+            return withLatency(experiment, MEAN_FOLD, accuracy, trainingMs, evaluationMs, throughput, metrics);
+        }
+
+        private static Row withLatency(String experiment, String fold, double accuracy, double trainingMs,
+                                       double evaluationMs, double throughput, ClassifierMetrics metrics) {
+            if (metrics == null || metrics.getPredictCount() == 0) {
+                return new Row(experiment, fold, accuracy, trainingMs, evaluationMs, throughput,
+                    Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+            }
+            LatencyHistogram latency = metrics.getPredictLatency();
+            return new Row(experiment, fold, accuracy, trainingMs, evaluationMs, throughput,
+                latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(90) / 1e3,
+                latency.getValueAtPercentile(99) / 1e3, latency.getValueAtPercentile(99.9) / 1e3);
+        }
+
+        public String getExperiment() {
+            return experiment;
+        }
+
+        public String getFold() {
+            return fold;
+        }
+
+        public boolean isMean() {
+            return MEAN_FOLD.equals(fold);
+        }
+    }
+
+    public void add(Row row) {
+        rows.add(row);
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public void write(String fileName) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            writer.println(HEADER);
+            for (Row row : rows) {
+                writer.println(quote(row.experiment) + "," + row.fold + ","
+                    + number(row.accuracy) + "," + number(row.trainingMs) + "," + number(row.evaluationMs) + ","
+                    + number(row.throughput) + "," + number(row.p50Us) + "," + number(row.p90Us) + ","
+                    + number(row.p99Us) + "," + number(row.p999Us));
+            }
+        }
+    }
+
+    public static ResultsFile read(String fileName) throws IOException {
+        ResultsFile results = new ResultsFile();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line = reader.readLine();
+            if (line == null || !line.equals(HEADER)) {
+                throw new IOException("Not a results file: " + fileName);
+            }
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                List<String> fields = split(line);
+                if (fields.size() != 10) {
+                    throw new IOException("Expected 10 fields at line " + lineNumber + " of " + fileName);
+                }
+                try {
+                    results.add(new Row(fields.get(0), fields.get(1), parse(fields.get(2)), parse(fields.get(3)),
+                        parse(fields.get(4)), parse(fields.get(5)), parse(fields.get(6)), parse(fields.get(7)),
+                        parse(fields.get(8)), parse(fields.get(9))));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid number at line " + lineNumber + " of " + fileName);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static double parse(String field) {
+        return field.isEmpty() ? Double.NaN : Double.parseDouble(field);
+    }
+
+    private static String quote(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0) {
+            return field;
+        }
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    // Splits one CSV line, honouring double-quoted fields
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,110 @@
+public class ScalarDistanceKernels implements DistanceKernels {
+    // Plain loops, used when the Vector API kernels are unavailable and as their fallback for values
+    // too large for int lanes.
+    // Bounded kernels check the running sum against the bound once per block of this many values
+    static final int EARLY_ABANDON_BLOCK = 16;
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            long diff = (long) data1[offset1 + i] - data2[offset2 + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long squaredDistance(int[] data1, int offset1, int[] data2, int offset2, int length, long bound) {
+        long sum = 0;
+        int i = 0;
+        while (i + EARLY_ABANDON_BLOCK <= length) {
+            int end = i + EARLY_ABANDON_BLOCK;
+            for (; i < end; i++) {
+                long diff = (long) data1[offset1 + i] - data2[offset2 + i];
+                sum += diff * diff;
+            }
+            if (sum > bound) {
+                return sum;
+            }
+        }
+        for (; i < length; i++) {
+            long diff = (long) data1[offset1 + i] - data2[offset2 + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            long diff = (long) query[queryOffset + i] - (packed[packedOffset + i] & 0xFF);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long squaredDistanceBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length, long bound) {
+        long sum = 0;
+        int i = 0;
+        while (i + EARLY_ABANDON_BLOCK <= length) {
+            int end = i + EARLY_ABANDON_BLOCK;
+            for (; i < end; i++) {
+                long diff = (long) query[queryOffset + i] - (packed[packedOffset + i] & 0xFF);
+                sum += diff * diff;
+            }
+            if (sum > bound) {
+                return sum;
+            }
+        }
+        for (; i < length; i++) {
+            long diff = (long) query[queryOffset + i] - (packed[packedOffset + i] & 0xFF);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long dot(int[] data1, int offset1, int[] data2, int offset2, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += (long) data1[offset1 + i] * data2[offset2 + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long dotBytes(int[] query, int queryOffset, byte[] packed, int packedOffset, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += (long) query[queryOffset + i] * (packed[packedOffset + i] & 0xFF);
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] weights, int weightOffset, int[] features, int featureOffset, int length) {
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            sum += weights[weightOffset + i] * features[featureOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(int[] features, int featureOffset, double[] point, int pointOffset, int length) {
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            double diff = features[featureOffset + i] - point[pointOffset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+}
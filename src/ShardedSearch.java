@@ -0,0 +1,160 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ShardedSearch implements NeighborSearch {
+    // Exact k-nearest search over the rows of a FeatureStore that splits a single query across cores.
+    // The rows are cut into contiguous shards; each shard keeps its own top-k on the common
+    // ForkJoinPool and the partial results are merged pairwise as the tasks join. Stores smaller than
+    // minParallelRows (or a pool with a single worker) are scanned sequentially, since forking would
+    // cost more than it saves. Shards publish their k-th best distance as soon as they hold k rows, and
+    // every shard abandons rows beyond the smallest published one, so pruning stays close to that of
+    // a single scan. Results match a sequential scan exactly, ties going to the lower row.
+    public static final int DEFAULT_MIN_PARALLEL_ROWS = 8192;
+    private static final int MIN_SHARD_ROWS = 1024;
+    private static final int SHARDS_PER_WORKER = 4; // extra shards so uneven early abandoning still balances
+
+    private final FeatureStore points;
+    private final int minParallelRows;
+
+    public ShardedSearch(FeatureStore points) {
+        this(points, DEFAULT_MIN_PARALLEL_ROWS);
+    }
+
+    public ShardedSearch(FeatureStore points, int minParallelRows) {
+        this.points = points;
+        this.minParallelRows = minParallelRows;
+    }
+
+    @Override
+    public FeatureStore getPoints() {
+        return points;
+    }
+
+    // True when a query over this store is split into shards
+    public boolean isParallel() {
+        return points.getRowCount() >= minParallelRows && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    // Fills squaredDistances/rows with the k nearest rows in ascending order and returns how many
+    // were found (fewer than k only when the store holds fewer rows)
+    @Override
+    public int nearest(int[] query, int queryOffset, int k, long[] squaredDistances, int[] rows) {
+        if (k <= 0) {
+            return 0;
+        }
+        int n = points.getRowCount();
+        int count;
+        if (!isParallel()) {
+            count = scan(query, queryOffset, k, 0, n, squaredDistances, rows);
+        } else {
+            int shards = SHARDS_PER_WORKER * ForkJoinPool.getCommonPoolParallelism();
+            int shardRows = Math.max(MIN_SHARD_ROWS, (n + shards - 1) / shards);
+            AtomicLong sharedBound = new AtomicLong(Long.MAX_VALUE);
+            Shard result = ForkJoinPool.commonPool().invoke(
+                new ShardTask(query, queryOffset, k, 0, n, shardRows, sharedBound));
+            System.arraycopy(result.distances, 0, squaredDistances, 0, result.count);
+            System.arraycopy(result.rows, 0, rows, 0, result.count);
+            count = result.count;
+        }
+        NeighborHeap.sortAscending(squaredDistances, rows, count);
+        return count;
+    }
+
+    // Top-k of rows [from, to) as a max-heap in distances/rows; returns its size
+    private int scan(int[] query, int queryOffset, int k, int from, int to, long[] distances, int[] rows) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            long bound = count < k ? Long.MAX_VALUE : distances[0];
+            long distance = points.squaredDistance(query, queryOffset, i, bound);
+            if (count < k || distance < bound) {
+                count = NeighborHeap.offer(distances, rows, count, k, distance, i);
+            }
+        }
+        return count;
+    }
+
+    // Same as scan, also pruning against (and tightening) the bound shared by all shards of a query.
+    // A row at exactly the shared bound can still beat another shard's row on index, so only rows
+    // strictly beyond it are dropped.
+    private int scanShard(int[] query, int queryOffset, int k, int from, int to, long[] distances, int[] rows,
+                          AtomicLong sharedBound) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            long shared = sharedBound.get();
+            long bound = Math.min(count < k ? Long.MAX_VALUE : distances[0], shared);
+            long distance = points.squaredDistance(query, queryOffset, i, bound);
+            if (distance > shared) {
+                continue;
+            }
+            if (count < k || distance < distances[0]) {
+                count = NeighborHeap.offer(distances, rows, count, k, distance, i);
+                if (count == k && distances[0] < shared) {
+                    long kth = distances[0];
+                    sharedBound.accumulateAndGet(kth, Math::min);
+                }
+            }
+        }
+        return count;
+    }
+
+    // Partial top-k of one shard (or of several merged shards), heap-ordered
+    private static final class Shard {
+        final long[] distances;
+        final int[] rows;
+        int count;
+
+        Shard(int k) {
+            distances = new long[k];
+            rows = new int[k];
+        }
+
+        // Adds the other shard's neighbors; rows are compared explicitly since shards arrive in any order
+        void merge(Shard other, int k) {
+            for (int i = 0; i < other.count; i++) {
+                long distance = other.distances[i];
+                int row = other.rows[i];
+                if (count < k || NeighborHeap.farther(distances[0], rows[0], distance, row)) {
+                    count = NeighborHeap.offer(distances, rows, count, k, distance, row);
+                }
+            }
+        }
+    }
+
+    private final class ShardTask extends RecursiveTask<Shard> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] query;
+        private final int queryOffset;
+        private final int k;
+        private final int from;
+        private final int to;
+        private final int shardRows;
+        private final AtomicLong sharedBound;
+
+        ShardTask(int[] query, int queryOffset, int k, int from, int to, int shardRows, AtomicLong sharedBound) {
+            this.query = query;
+            this.queryOffset = queryOffset;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+            this.shardRows = shardRows;
+            this.sharedBound = sharedBound;
+        }
+
+        @Override
+        protected Shard compute() {
+            if (to - from <= shardRows) {
+                Shard shard = new Shard(k);
+                shard.count = scanShard(query, queryOffset, k, from, to, shard.distances, shard.rows, sharedBound);
+                return shard;
+            }
+            int mid = (from + to) >>> 1;
+            ShardTask upper = new ShardTask(query, queryOffset, k, mid, to, shardRows, sharedBound);
+            upper.fork();
+            Shard lower = new ShardTask(query, queryOffset, k, from, mid, shardRows, sharedBound).compute();
+            lower.merge(upper.join(), k);
+            return lower;
+        }
+    }
+}
@@ -13,6 +13,22 @@ public class SimpleVotingClassifier implements Classifier {
         }
     }
 
+    @Override
+    public void train(DenseMatrix features, int[] labels) {
+        for (Classifier c : classifiers) {
+            c.train(features, labels);
+        }
+    }
+
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        int[] predictions = new int[classifiers.length];
+        for (int i = 0; i < classifiers.length; i++) {
+            predictions[i] = classifiers[i].predict(samples, row);
+        }
+        return majorityElement(predictions);
+    }
+
     @Override
     public int predict(int[] sample) {
         // Count votes for each predicted class
@@ -37,6 +53,31 @@ public class SimpleVotingClassifier implements Classifier {
         return majorityVote;
     }
 
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    // Each member predicts the whole batch with its own batch path, then votes are taken per sample
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        int m = samples.getRowCount();
+        int[][] memberPredictions = new int[classifiers.length][];
+        for (int c = 0; c < classifiers.length; c++) {
+            memberPredictions[c] = classifiers[c].predictBatch(samples);
+        }
+
+        int[] predictions = new int[m];
+        int[] votes = new int[classifiers.length];
+        for (int i = 0; i < m; i++) {
+            for (int c = 0; c < classifiers.length; c++) {
+                votes[c] = memberPredictions[c][i];
+            }
+            predictions[i] = majorityElement(votes);
+        }
+        return predictions;
+    }
+
     // Helper method to find majority element. If tie occurs, returns one of them.
     private int majorityElement(int[] arr) {
         // A simple way: count frequencies in a map
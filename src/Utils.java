@@ -137,12 +137,7 @@ public class Utils {
 
     // Euclidean distance between feature vector and centroid
     public static double euclideanDistance(int[] x1, double[] x2) {
-        double sum = 0.0;
-        for (int i = 0; i < x1.length; i++) {
-            double diff = x1[i] - x2[i];
-            sum += diff * diff;
-        }
-        return Math.sqrt(sum);
+        return DistanceCalculator.euclideanDistance(x1, x2);
     }
 
     public static int[][] deepCopy(int[][] original) {
@@ -1,71 +1,202 @@
 public class WeightedKNearestNeighborsClassifier implements Classifier {
-    private int[][] trainingFeatures;
+    private FeatureStore references; // training vectors, contiguous or packed
     private int[] trainingLabels;
     private int k;
     private int numClasses;
+    private boolean packFeatures; // store features in 8 or 4 bits per value when they fit
+    private boolean useIndex; // build a KD-tree in train and search it instead of scanning
+    private KDTree index; // null for a linear scan
+    private int hnswM; // > 0 for approximate search through an HNSW graph built in train
+    private int efConstruction;
+    private int efSearch;
+    private boolean parallelBuild; // insert the HNSW rows concurrently on the caller's ForkJoinPool
+    private HnswIndex approximateIndex; // null unless hnswM > 0
+    private boolean parallelSearch; // split each linear scan into shards on the common ForkJoinPool
+    private ShardedSearch shardedSearch; // null without parallelSearch
+    private NeighborSearch search; // backend for single queries: the KD-tree, the HNSW graph, the sharded scan or a linear scan
+    private BatchDistances batchDistances; // tiled distance engine for predictBatch, null with an index
+    private PrototypeSelection prototypeSelection; // reduces the training set in train, or null
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(k, numClasses));
 
     public WeightedKNearestNeighborsClassifier(int k, int numClasses) {
+        this(k, numClasses, false);
+    }
+
+    public WeightedKNearestNeighborsClassifier(int k, int numClasses, boolean packFeatures) {
+        this(k, numClasses, packFeatures, false);
+    }
+
+    // With useIndex the k nearest neighbors come from a KDTree built in train (same neighbors, fewer rows scanned)
+    public WeightedKNearestNeighborsClassifier(int k, int numClasses, boolean packFeatures, boolean useIndex) {
+        this(k, numClasses, packFeatures, useIndex, false);
+    }
+
+    // With parallelSearch a single query over a large reference set is scanned in shards on the
+    // common ForkJoinPool, each keeping a local top-k (see ShardedSearch); small sets stay sequential
+    public WeightedKNearestNeighborsClassifier(int k, int numClasses, boolean packFeatures, boolean useIndex,
+                                               boolean parallelSearch) {
+        this(k, numClasses, packFeatures, useIndex, parallelSearch, null);
+    }
+
+    // With a PrototypeSelection only the training rows it selects are kept (see PrototypeSelection)
+    public WeightedKNearestNeighborsClassifier(int k, int numClasses, boolean packFeatures, boolean useIndex,
+                                               boolean parallelSearch, PrototypeSelection prototypeSelection) {
+        this.prototypeSelection = prototypeSelection;
         this.k = k;
         this.numClasses = numClasses;
+        this.packFeatures = packFeatures;
+        this.useIndex = useIndex;
+        this.parallelSearch = parallelSearch;
+    }
+
+    // Approximate mode: neighbors come from an HnswIndex built in train with the given graph degree
+    // and search widths. Faster on large reference sets, at the cost of occasionally missing a true neighbor.
+    public WeightedKNearestNeighborsClassifier(int k, int numClasses, int hnswM, int efConstruction, int efSearch) {
+        this(k, numClasses, hnswM, efConstruction, efSearch, true);
+    }
+
+    // parallelBuild false builds the graph sequentially from a fixed seed, so every train on the
+    // same data gives the same graph and the same predictions
+    public WeightedKNearestNeighborsClassifier(int k, int numClasses, int hnswM, int efConstruction, int efSearch,
+                                               boolean parallelBuild) {
+        this(k, numClasses, false, false);
+        this.hnswM = hnswM;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.parallelBuild = parallelBuild;
+    }
+
+    // The HNSW graph built by train (efSearch can be tuned on it), or null outside approximate mode
+    public HnswIndex getApproximateIndex() {
+        return approximateIndex;
+    }
+
+    // The KD-tree built by train (query statistics live there), or null without useIndex
+    public KDTree getIndex() {
+        return index;
+    }
+
+    // The backend chosen by train for single queries
+    public NeighborSearch getSearch() {
+        return search;
+    }
+
+    // The training-set reduction (its statistics describe the last train), or null
+    public PrototypeSelection getPrototypeSelection() {
+        return prototypeSelection;
     }
 
     @Override
     public void train(int[][] features, int[] labels) {
-        this.trainingFeatures = features;
+        if (prototypeSelection != null) {
+            train(DenseMatrix.of(features), labels);
+            return;
+        }
+        this.references = packFeatures ? PackedFeatureStore.packIfFits(features) : DenseMatrix.of(features);
         this.trainingLabels = labels;
+        buildIndexes();
     }
 
     @Override
-    public int predict(int[] testImage) {
-        int n = trainingFeatures.length;
-        double[] distances = new double[n];
-        int[] labels = new int[n];
-
-        // Compute distances
-        for (int i = 0; i < n; i++) {
-            distances[i] = DistanceCalculator.euclideanDistance(testImage, trainingFeatures[i]);
-            labels[i] = trainingLabels[i];
+    public void train(DenseMatrix features, int[] labels) {
+        if (prototypeSelection != null) {
+            int[] kept = prototypeSelection.select(features, labels);
+            features = features.selectRows(kept);
+            labels = PrototypeSelection.selectLabels(labels, kept);
         }
+        this.references = packFeatures ? PackedFeatureStore.packIfFits(features) : features;
+        this.trainingLabels = labels;
+        buildIndexes();
+    }
 
-        // Partial sort: find the k nearest neighbors
-        // For simplicity, use selection sort for the first k neighbors:
-        for (int i = 0; i < k; i++) {
-            int minIndex = i;
-            for (int j = i + 1; j < n; j++) {
-                if (distances[j] < distances[minIndex]) {
-                    minIndex = j;
-                }
-            }
-            double tempDist = distances[i];
-            distances[i] = distances[minIndex];
-            distances[minIndex] = tempDist;
+    private void buildIndexes() {
+        this.index = useIndex ? new KDTree(references) : null;
+        this.approximateIndex = hnswM > 0 ? new HnswIndex(references, hnswM, efConstruction, efSearch, parallelBuild, 42) : null;
+        this.shardedSearch = parallelSearch && index == null && approximateIndex == null
+            ? new ShardedSearch(references) : null;
+        this.batchDistances = index == null && approximateIndex == null ? new BatchDistances(references) : null;
+        this.search = index != null ? index
+            : approximateIndex != null ? approximateIndex
+            : shardedSearch != null && shardedSearch.isParallel() ? shardedSearch
+            : new LinearSearch(references);
+    }
 
-            int tempLabel = labels[i];
-            labels[i] = labels[minIndex];
-            labels[minIndex] = tempLabel;
-        }
+    @Override
+    public int predict(int[] testImage) {
+        return predictAt(testImage, 0);
+    }
 
-        // Weighted voting
-        // weight = 1/(distance+epsilon)
-        double[] labelWeights = new double[numClasses];
-        double epsilon = 1e-5;
-        for (int i = 0; i < k; i++) {
-            int label = labels[i];
-            if (label >= 0 && label < numClasses) {
-                double weight = 1.0 / (distances[i] + epsilon);
-                labelWeights[label] += weight;
-            }
+    @Override
+    public int predict(DenseMatrix samples, int row) {
+        return predictAt(samples.getData(), samples.rowOffset(row));
+    }
+
+    private int predictAt(int[] testImage, int testOffset) {
+        Scratch buffers = scratch.get();
+        int found = search.nearest(testImage, testOffset, k, buffers.distances, buffers.rows);
+        return NeighborHeap.vote(buffers.distances, buffers.rows, found, trainingLabels, buffers.weights);
+    }
+
+    @Override
+    public int[] predictBatch(int[][] samples) {
+        return predictBatch(DenseMatrix.of(samples));
+    }
+
+    // Tiled scan: distances for a block of training rows against a whole block of queries come from
+    // BatchDistances while the rows are in cache; every query keeps its own k-nearest heap across the blocks.
+    @Override
+    public int[] predictBatch(DenseMatrix samples) {
+        if (!(search instanceof LinearSearch)) {
+            return Classifier.super.predictBatch(samples); // index and sharded searches are per query
         }
+        int m = samples.getRowCount();
+        int n = references.getRowCount();
+        int[] predictions = new int[m];
+        long[][] nearestDistances = new long[BatchDistances.QUERY_TILE][k];
+        int[][] nearestRows = new int[BatchDistances.QUERY_TILE][k];
+        double[] weights = scratch.get().weights;
+        int[] found = new int[BatchDistances.QUERY_TILE];
+        BatchDistances.Block block = batchDistances.newBlock(samples);
 
-        int predictedLabel = -1;
-        double maxWeight = -1.0;
-        for (int c = 0; c < numClasses; c++) {
-            if (labelWeights[c] > maxWeight) {
-                maxWeight = labelWeights[c];
-                predictedLabel = c;
+        for (int queryStart = 0; queryStart < m; queryStart += BatchDistances.QUERY_TILE) {
+            int queryEnd = Math.min(m, queryStart + BatchDistances.QUERY_TILE);
+            java.util.Arrays.fill(found, 0);
+            for (int refStart = 0; refStart < n; refStart += BatchDistances.REFERENCE_TILE) {
+                int refEnd = Math.min(n, refStart + BatchDistances.REFERENCE_TILE);
+                block.compute(queryStart, queryEnd, refStart, refEnd);
+                for (int q = queryStart; q < queryEnd; q++) {
+                    int t = q - queryStart;
+                    long[] distances = nearestDistances[t];
+                    int[] rows = nearestRows[t];
+                    int count = found[t];
+                    for (int i = refStart; i < refEnd; i++) {
+                        long distance = block.get(q, i);
+                        if (count < k || distance < distances[0]) {
+                            count = NeighborHeap.offer(distances, rows, count, k, distance, i);
+                        }
+                    }
+                    found[t] = count;
+                }
+            }
+            for (int q = queryStart; q < queryEnd; q++) {
+                int t = q - queryStart;
+                NeighborHeap.sortAscending(nearestDistances[t], nearestRows[t], found[t]);
+                predictions[q] = NeighborHeap.vote(nearestDistances[t], nearestRows[t], found[t], trainingLabels, weights);
             }
         }
+        return predictions;
+    }
 
-        return predictedLabel;
+    // Per-thread buffers reused by every predict call on this classifier
+    private static final class Scratch {
+        final long[] distances;
+        final int[] rows;
+        final double[] weights;
+
+        Scratch(int k, int numClasses) {
+            distances = new long[k];
+            rows = new int[k];
+            weights = new double[numClasses];
+        }
     }
 }
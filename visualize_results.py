@@ -4,6 +4,7 @@ Visualization script for Machine Learning Classifier results.
 Generates performance charts from experiment results.
 """
 
+import csv
 import re
 import sys
 import os
@@ -46,6 +47,30 @@ def parse_results_file(filename):
         
     return classifiers
 
+def parse_results_csv(filename):
+    """Read the per-classifier mean rows of a structured results file."""
+    classifiers = []
+    try:
+        with open(filename, newline='') as f:
+            for row in csv.DictReader(f):
+                if row['fold'] != 'mean':
+                    continue
+                classifiers.append({
+                    'name': row['experiment'],
+                    'accuracy': float(row['accuracy']),
+                    'training_ms': float(row['training_ms']) if row['training_ms'] else None,
+                    'throughput': float(row['throughput_per_s']) if row['throughput_per_s'] else None,
+                    'p99_us': float(row['p99_us']) if row['p99_us'] else None,
+                })
+    except (OSError, KeyError, ValueError) as e:
+        print(f"Error parsing file: {e}")
+        return []
+        
+    classifiers.sort(key=lambda x: x['accuracy'], reverse=True)
+    for rank, c in enumerate(classifiers, 1):
+        c['rank'] = rank
+    return classifiers
+
 def create_matplotlib_visualization(classifiers, output_dir='results'):
     """Create visualization using matplotlib if available."""
     try:
@@ -176,8 +201,10 @@ def main():
         print("Please run the experiments first using run_experiments.sh or run_experiments.bat")
         return
     
-    # Find the most recent results file
-    result_files = [f for f in os.listdir('results') if f.startswith('experiment_results_') and f.endswith('.txt')]
+    # Find the most recent results file, preferring the structured CSV over the text log
+    result_files = [f for f in os.listdir('results') if f.startswith('experiment_results_') and f.endswith('.csv')]
+    if not result_files:
+        result_files = [f for f in os.listdir('results') if f.startswith('experiment_results_') and f.endswith('.txt')]
     
     if not result_files:
         print("No results files found in 'results' directory.")
@@ -191,7 +218,10 @@ def main():
     print(f"Using results file: {latest_file}")
     
     # Parse results
-    classifiers = parse_results_file(latest_file)
+    if latest_file.endswith('.csv'):
+        classifiers = parse_results_csv(latest_file)
+    else:
+        classifiers = parse_results_file(latest_file)
     
     if not classifiers:
         print("No classifier data found in results file.")